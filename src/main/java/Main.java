@@ -1,8 +1,124 @@
+import annotate.AnnotationPipeline;
+import constants.ReversiConstants;
 import game.Reversi;
+import game.TranspositionTable;
+import selfplay.Coordinator;
+import selfplay.EngineConfig;
+import selfplay.Worker;
+import server.EngineServer;
+import server.Session;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
 
 public class Main {
 
-    public static void main(String[] args) {
-        new Reversi();
+    /**
+     * Starts the Swing game, a headless engine with --server [port] or --stdio, or distributed self-play with
+     * --coordinator [port] [openings] [first config] [second config] [output] [opening plies] [batch size]
+     * [bind address, loopback unless given] and --worker [host] [port], or annotates stored games with
+     * --annotate [input] [output] [config] [blunder threshold] [threads] [millis per position]
+     *
+     * @param args - the command line arguments
+     * @throws IOException - if the headless engine can't read or listen
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : ReversiConstants.SERVER_PORT;
+            new EngineServer(port).run();
+        } else if (args.length > 0 && args[0].equals("--stdio")) {
+            runStdio();
+        } else if (args.length > 0 && args[0].equals("--coordinator")) {
+            runCoordinator(args);
+        } else if (args.length > 0 && args[0].equals("--worker")) {
+            String host = args.length > 1 ? args[1] : "localhost";
+            int port = args.length > 2 ? Integer.parseInt(args[2]) : ReversiConstants.SELFPLAY_PORT;
+            new Worker(host, port).run();
+        } else if (args.length > 0 && args[0].equals("--annotate")) {
+            runAnnotate(args);
+        } else {
+            new Reversi();
+        }
+    }
+
+    /**
+     * Runs a single session over standard input and output
+     *
+     * @throws IOException - if standard input can't be read
+     */
+    private static void runStdio() throws IOException {
+        TranspositionTable table = new TranspositionTable(ReversiConstants.HASH_TABLE_BITS);
+        table.persist(Paths.get(ReversiConstants.ANALYSIS_DIRECTORY), "staticEvaluation", ReversiConstants.SELECTIVITY,
+                ReversiConstants.PERSIST_MIN_DEPTH);
+        Session session = new Session(System.out::println, table);
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        String line;
+        while (!session.isClosed() && (line = in.readLine()) != null) {
+            session.handle(line);
+        }
+    }
+
+    /**
+     * Runs a self-play match between two engine configs, appending the finished games to the output file
+     *
+     * @param args - the command line arguments
+     * @throws IOException - if the coordinator can't listen or write the games
+     */
+    private static void runCoordinator(String[] args) throws IOException {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : ReversiConstants.SELFPLAY_PORT;
+        int openings = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        String first = args.length > 3 ? args[3] : "staticEvaluation/4/0";
+        String second = args.length > 4 ? args[4] : "staticEvaluationTwo/4/0";
+        String file = args.length > 5 ? args[5] : "selfplay.txt";
+        int plies = args.length > 6 ? Integer.parseInt(args[6]) : 8;
+        int batchSize = args.length > 7 ? Integer.parseInt(args[7]) : 10;
+
+        // Only local workers unless told otherwise, as anyone who can connect can send records, e.g. 0.0.0.0 lets
+        // workers on other machines in
+        InetAddress bindAddress = args.length > 8 ? InetAddress.getByName(args[8]) : InetAddress.getLoopbackAddress();
+
+        // Fail here rather than in every worker
+        EngineConfig.parse(first);
+        EngineConfig.parse(second);
+
+        List<String> games = Coordinator.match(Coordinator.randomOpenings(openings, plies, new Random(openings)),
+                first, second);
+        try (Writer output = Files.newBufferedWriter(Paths.get(file), StandardCharsets.US_ASCII,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            new Coordinator(bindAddress, port, games, batchSize, output).run();
+        }
+    }
+
+    /**
+     * Annotates a file of game records, replacing the output file
+     *
+     * @param args - the command line arguments
+     * @throws IOException - if the games can't be read or the annotations written
+     */
+    private static void runAnnotate(String[] args) throws IOException {
+        String input = args.length > 1 ? args[1] : "selfplay.txt";
+        String file = args.length > 2 ? args[2] : "annotated.txt";
+        EngineConfig config = EngineConfig.parse(args.length > 3 ? args[3] : "staticEvaluation/6/2");
+        int threshold = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        long millis = args.length > 6 ? Long.parseLong(args[6]) : 0;
+
+        AnnotationPipeline pipeline = new AnnotationPipeline(config, millis, threshold, threads);
+        long start = System.nanoTime();
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(input), StandardCharsets.US_ASCII);
+             Writer output = Files.newBufferedWriter(Paths.get(file), StandardCharsets.US_ASCII)) {
+            pipeline.run(in, output);
+        }
+        System.out.printf("Annotated %d games (%d skipped, %d blunders) in %.1f s%n", pipeline.getGames(),
+                pipeline.getSkipped(), pipeline.getBlunders(), (System.nanoTime() - start) / 1e9);
     }
-}
\ No newline at end of file
+}
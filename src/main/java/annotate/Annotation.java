@@ -0,0 +1,89 @@
+package annotate;
+
+import game.GameRecord;
+
+/**
+ * A game with a score for every position and the loss of every move, written as the record line followed by
+ * four more fields:
+ * <pre>
+ * record depth scores losses blunders
+ * </pre>
+ * The depth is the deepest search of the game, the scores are of the position before each move from black's
+ * side, the losses are how much worse each move is than the best one for the player who made it, and the
+ * blunders are the move numbers (from 1) whose loss reached the threshold.  Lists are comma separated, "-"
+ * for an empty one.
+ */
+public class Annotation {
+
+    private final GameRecord record;
+    private final int depth;
+    private final int[] scores;
+    private final int[] losses;
+    private final int[] blunders;
+
+    /**
+     * Creates an annotation
+     *
+     * @param record   - the game
+     * @param depth    - the deepest search of the game
+     * @param scores   - score of the position before each move, from black's side
+     * @param losses   - loss of each move for the player who made it
+     * @param blunders - move numbers, from 1, of the blunders
+     */
+    public Annotation(GameRecord record, int depth, int[] scores, int[] losses, int[] blunders) {
+        this.record = record;
+        this.depth = depth;
+        this.scores = scores;
+        this.losses = losses;
+        this.blunders = blunders;
+    }
+
+    /**
+     * Formats the annotation as one line
+     *
+     * @return - the annotated record line
+     */
+    public String toLine() {
+        return record.toLine() + " " + depth + " " + list(scores) + " " + list(losses) + " " + list(blunders);
+    }
+
+    /**
+     * Joins numbers with commas
+     *
+     * @param values - the numbers
+     * @return - the list, "-" if empty
+     */
+    private static String list(int[] values) {
+        if (values.length == 0) {
+            return "-";
+        }
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                list.append(',');
+            }
+            list.append(values[i]);
+        }
+        return list.toString();
+    }
+
+    public GameRecord getRecord() {
+        return record;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int[] getScores() {
+        return scores.clone();
+    }
+
+    public int[] getLosses() {
+        return losses.clone();
+    }
+
+    public int[] getBlunders() {
+        return blunders.clone();
+    }
+}
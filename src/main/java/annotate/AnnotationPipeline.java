@@ -0,0 +1,185 @@
+package annotate;
+
+import game.GameRecord;
+import selfplay.EngineConfig;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Annotates a stream of game records on a pool of threads and writes the annotated records in input order.
+ * <p>
+ * One thread reads the records and hands each game to the pool, the calling thread writes the results as
+ * they come due.  At most {@code threads * GAMES_PER_THREAD} games are read ahead of the writer: once that
+ * many are waiting the reader blocks, so a file of any size runs in fixed memory.  Each pool thread keeps
+ * its own {@link Annotator}, and with it the hash table the positions of a game share.
+ */
+public class AnnotationPipeline {
+
+    // Games each thread may have waiting, enough that no thread idles while the writer catches up
+    private static final int GAMES_PER_THREAD = 4;
+
+    // Marks the end of the input in the queue of results
+    private static final Future<String> END = CompletableFuture.completedFuture(null);
+
+    private final EngineConfig config;
+    private final long millis;
+    private final int threshold;
+    private final int threads;
+
+    private int games = 0;
+    private int skipped = 0;
+    private int blunders = 0;
+
+    /**
+     * Creates a pipeline
+     *
+     * @param config    - the engine setting
+     * @param millis    - time per position, 0 to search to the config's depth
+     * @param threshold - the loss at which a move is a blunder
+     * @param threads   - the number of games annotated at once
+     */
+    public AnnotationPipeline(EngineConfig config, long millis, int threshold, int threads) {
+        this.config = config;
+        this.millis = millis;
+        this.threshold = threshold;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Annotates every record of the input.  Lines that aren't records or hold an invalid move are reported and
+     * left out.
+     *
+     * @param input  - record lines
+     * @param output - receives an annotated record line per game
+     * @throws IOException - if the input can't be read or the output written
+     */
+    public void run(BufferedReader input, Writer output) throws IOException {
+        // The counts are of this run only
+        games = 0;
+        skipped = 0;
+        synchronized (this) {
+            blunders = 0;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "annotate");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ThreadLocal<Annotator> annotators = ThreadLocal.withInitial(() -> new Annotator(config, millis, threshold));
+        BlockingQueue<Future<String>> results = new ArrayBlockingQueue<>(threads * GAMES_PER_THREAD);
+        IOException[] readFailure = new IOException[1];
+
+        Thread reader = new Thread(() -> {
+            try {
+                String line;
+                while ((line = input.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    String record = line;
+                    results.put(pool.submit(() -> annotate(annotators.get(), record)));
+                }
+            } catch (IOException e) {
+                readFailure[0] = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try {
+                    results.put(END);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "read records");
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            long start = System.nanoTime();
+            Future<String> result;
+            while ((result = results.take()) != END) {
+                String line = result.get();
+                if (line == null) {
+                    skipped++;
+                    continue;
+                }
+                output.write(line);
+                output.write(System.lineSeparator());
+                games++;
+                if (games % 1000 == 0) {
+                    System.out.printf("%d games, %.1f games/s%n", games, games * 1e9 / (System.nanoTime() - start));
+                }
+            }
+            output.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reader.interrupt();
+        } catch (ExecutionException e) {
+            reader.interrupt();
+            throw new IOException("annotation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (readFailure[0] != null) {
+            throw readFailure[0];
+        }
+    }
+
+    /**
+     * Annotates one record line on a pool thread
+     *
+     * @param annotator - the thread's annotator
+     * @param line      - the record line
+     * @return - the annotated record line, or null if the line is not a valid game
+     */
+    private String annotate(Annotator annotator, String line) {
+        try {
+            Annotation annotation = annotator.annotate(GameRecord.parse(line));
+            synchronized (this) {
+                blunders += annotation.getBlunders().length;
+            }
+            return annotation.toLine();
+        } catch (IllegalArgumentException e) {
+            System.out.println("Skipping game: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Gets the number of games annotated by the last run
+     *
+     * @return - the number of games written
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the number of lines left out of the last run
+     *
+     * @return - the number of lines that weren't valid games
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Gets the number of blunders found by the last run
+     *
+     * @return - the number of blunders
+     */
+    public synchronized int getBlunders() {
+        return blunders;
+    }
+}
@@ -0,0 +1,145 @@
+package annotate;
+
+import constants.Piece;
+import constants.ReversiConstants;
+import game.Bitboard;
+import game.Board;
+import game.Engine;
+import game.GameRecord;
+import game.TimeManager;
+import game.TranspositionTable;
+import selfplay.EngineConfig;
+
+/**
+ * Replays games and scores them move by move.
+ * <p>
+ * Before each move the position is searched for the best score, and the position after it one ply shallower
+ * for the score of the move played.  The best score is the best of exactly those shallower searches, so the
+ * difference is what the move lost.  Both searches of a game use one hash table, cleared at the start of the
+ * game, so a move's search mostly finds the position after it already searched.
+ * <p>
+ * An annotator is not thread safe; give each thread its own.
+ */
+public class Annotator {
+
+    private static final int BOARD_SIZE = 8;
+
+    private final EngineConfig config;
+    private final long millis;
+    private final int threshold;
+
+    private final TranspositionTable table = new TranspositionTable(ReversiConstants.HASH_TABLE_BITS);
+
+    // Engines by depth, built when first needed, all searching with the table
+    private final Engine[] engines = new Engine[ReversiConstants.MAX_SEARCH_DEPTH + 1];
+
+    // Picks the depth of each position when there is a time per position, with a table of its own
+    private TranspositionTable timedTable;
+    private Engine timedEngine;
+
+    /**
+     * Creates an annotator
+     *
+     * @param config    - the engine setting, searched to its depth unless there is a time per position
+     * @param millis    - time a search of each position gets to pick its depth, 0 to search to the config's depth
+     * @param threshold - the loss at which a move is a blunder
+     */
+    public Annotator(EngineConfig config, long millis, int threshold) {
+        this.config = config;
+        this.millis = millis;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Scores every position of a game.  Moves of the opening are scored but never called blunders, they
+     * weren't chosen by the players.
+     *
+     * @param record - the game
+     * @return - the annotated game
+     * @throws IllegalArgumentException - if a move of the game is not valid
+     */
+    public Annotation annotate(GameRecord record) {
+        table.clear();
+        int[] moves = record.getMoves();
+        int[] scores = new int[moves.length];
+        int[] losses = new int[moves.length];
+        int[] blunders = new int[moves.length];
+        int blunderCount = 0;
+        int deepest = 0;
+        int lastDepth = 0;
+
+        Piece[][] board = Board.newBoard(BOARD_SIZE);
+        Piece player = Piece.BLACK;
+        for (int i = 0; i < moves.length; i++) {
+            player = GameRecord.sideToMove(board, player);
+            long valid = Bitboard.validMoves(Bitboard.fromBoard(board, player),
+                    Bitboard.fromBoard(board, Board.getOpposite(player)));
+            if ((valid & 1L << moves[i]) == 0) {
+                throw new IllegalArgumentException("move " + (i + 1) + " is not valid");
+            }
+
+            // Depth to score the position at.  A timed search only picks it: the entries a timed search leaves
+            // include subtrees of its unfinished deeper iteration, and with the evaluation's swing between odd
+            // and even depths any result deeper than a search asks for skews its score.  For the same reason the
+            // depth never drops more than a ply from one position to the next, the game's table holds results of
+            // the previous searches.
+            int depth = Math.min(config.getDepth(), ReversiConstants.MAX_SEARCH_DEPTH);
+            if (millis > 0) {
+                depth = Math.max(Math.max(1, lastDepth - 1), timedDepth(board, player));
+            }
+            lastDepth = depth;
+            deepest = Math.max(deepest, depth);
+            int best = engine(depth).findBestMove(board, player).getScore();
+
+            // The move's score for the player, who moves again if the opponent has to pass
+            Board.applyMove(board, player, moves[i] / BOARD_SIZE, moves[i] % BOARD_SIZE);
+            Piece next = GameRecord.sideToMove(board, Board.getOpposite(player));
+            int childScore = engine(depth - 1).findBestMove(board, next).getScore();
+            int played = next == player ? childScore : -childScore;
+
+            // Selective searches aren't exact, a move can come out a little better than the best
+            losses[i] = Math.max(0, best - played);
+            scores[i] = player == Piece.BLACK ? best : -best;
+            if (i >= record.getOpeningMoves() && losses[i] >= threshold) {
+                blunders[blunderCount++] = i + 1;
+            }
+            player = Board.getOpposite(player);
+        }
+
+        int[] blunderMoves = new int[blunderCount];
+        System.arraycopy(blunders, 0, blunderMoves, 0, blunderCount);
+        return new Annotation(record, deepest, scores, losses, blunderMoves);
+    }
+
+    /**
+     * Finds how deep a search of a position gets in the time per position
+     *
+     * @param board  - the position
+     * @param player - the player to move
+     * @return - the depth of the deepest completed iteration, 0 if none
+     */
+    private int timedDepth(Piece[][] board, Piece player) {
+        if (timedEngine == null) {
+            timedTable = new TranspositionTable(ReversiConstants.HASH_TABLE_BITS);
+            timedEngine = config.createEngine(timedTable, ReversiConstants.MAX_SEARCH_DEPTH);
+        }
+        timedTable.clear();
+        int[] depth = {0};
+        timedEngine.findBestMove(board, player, TimeManager.fixed(millis, Long.MAX_VALUE),
+                (iteration, move, nodes) -> depth[0] = iteration);
+        return depth[0];
+    }
+
+    /**
+     * Gets the engine searching to a depth, building it the first time
+     *
+     * @param depth - the depth of the minimax tree
+     * @return - the engine
+     */
+    private Engine engine(int depth) {
+        if (engines[depth] == null) {
+            engines[depth] = config.createEngine(table, depth);
+        }
+        return engines[depth];
+    }
+}
@@ -0,0 +1,135 @@
+package bench;
+
+import constants.Piece;
+import game.Bitboard;
+import game.Board;
+import game.Engine;
+import game.SquareTableEvaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the throughput of the square table evaluation, one leaf at a time against batches on the scalar
+ * and the Vector API kernel, and then the same three inside a fixed depth search, where the batches are the
+ * children of frontier nodes (Engine.setBatchLeafEvaluation).
+ * <p>
+ * The leaves are every child of a fixed (seeded) set of positions, scored in batches of one node's children.
+ * The Vector API kernel needs the JVM to run with --add-modules jdk.incubator.vector, otherwise the vector
+ * rows use the scalar kernel too.
+ * <p>
+ * Usage: EvaluatorBenchmark [search depth] [positions] [rounds]
+ */
+public class EvaluatorBenchmark {
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int positionCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        SquareTableEvaluator scalar = SquareTableEvaluator.standard(false);
+        SquareTableEvaluator vector = SquareTableEvaluator.standard(true);
+        System.out.println("Vector API kernel " + (vector.isVectorized() ? "loaded" : "not available"));
+
+        List<Piece[][]> positions = new ArrayList<>();
+        List<Piece> players = new ArrayList<>();
+        SearchBenchmark.randomPositions(positionCount, positions, players);
+
+        // The children of every position, one batch per position
+        List<long[]> ownBatches = new ArrayList<>();
+        List<long[]> opponentBatches = new ArrayList<>();
+        for (int i = 0; i < positions.size(); i++) {
+            long player = Bitboard.fromBoard(positions.get(i), players.get(i));
+            long opponent = Bitboard.fromBoard(positions.get(i), Board.getOpposite(players.get(i)));
+            long moves = Bitboard.validMoves(player, opponent);
+            long[] own = new long[Long.bitCount(moves)];
+            long[] other = new long[own.length];
+            for (int j = 0; moves != 0; moves &= moves - 1, j++) {
+                int square = Long.numberOfTrailingZeros(moves);
+                long flipped = Bitboard.flips(player, opponent, square);
+                own[j] = player | flipped | 1L << square;
+                other[j] = opponent & ~flipped;
+            }
+            ownBatches.add(own);
+            opponentBatches.add(other);
+        }
+
+        int[] scores = new int[Bitboard.SQUARES];
+        for (int round = 0; round < rounds; round++) {
+            long leaves = 0;
+            long leafSum = 0;
+            long scalarSum = 0;
+            long vectorSum = 0;
+
+            long start = System.nanoTime();
+            for (int repeat = 0; repeat < 1000; repeat++) {
+                for (int i = 0; i < ownBatches.size(); i++) {
+                    long[] own = ownBatches.get(i);
+                    long[] other = opponentBatches.get(i);
+                    for (int j = 0; j < own.length; j++) {
+                        leafSum += scalar.evaluate(own[j], other[j]);
+                    }
+                    leaves += own.length;
+                }
+            }
+            long leafNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int repeat = 0; repeat < 1000; repeat++) {
+                for (int i = 0; i < ownBatches.size(); i++) {
+                    scalar.evaluate(ownBatches.get(i), opponentBatches.get(i), ownBatches.get(i).length, scores);
+                    scalarSum += sum(scores, ownBatches.get(i).length);
+                }
+            }
+            long scalarNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int repeat = 0; repeat < 1000; repeat++) {
+                for (int i = 0; i < ownBatches.size(); i++) {
+                    vector.evaluate(ownBatches.get(i), opponentBatches.get(i), ownBatches.get(i).length, scores);
+                    vectorSum += sum(scores, ownBatches.get(i).length);
+                }
+            }
+            long vectorNanos = System.nanoTime() - start;
+
+            System.out.printf("round %d: per leaf %.1f, batch scalar %.1f, batch vector %.1f M leaves/s%s%n",
+                    round, leaves * 1e3 / leafNanos, leaves * 1e3 / scalarNanos, leaves * 1e3 / vectorNanos,
+                    leafSum == scalarSum && leafSum == vectorSum ? "" : ", SCORES DIFFER");
+        }
+
+        // The same evaluator in the search, one leaf at a time and in batches on either kernel
+        SquareTableEvaluator[] evaluators = {scalar, scalar, vector};
+        boolean[] batched = {false, true, true};
+        String[] names = {"per leaf", "batch scalar", "batch vector"};
+        for (int round = 0; round < rounds; round++) {
+            StringBuilder line = new StringBuilder("search round " + round + ":");
+            for (int k = 0; k < evaluators.length; k++) {
+                Engine engine = new Engine(depth, evaluators[k]);
+                engine.setBatchLeafEvaluation(batched[k]);
+                long nodes = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < positions.size(); i++) {
+                    engine.findBestMove(positions.get(i), players.get(i));
+                    nodes += engine.getMoveTotalNodes();
+                }
+                line.append(String.format(" %s %.1f M nodes/s", names[k], nodes * 1e3 / (System.nanoTime() - start)));
+            }
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * Adds up a batch of scores, so the batches can be checked against the leaf by leaf scores
+     *
+     * @param scores - the scores
+     * @param count  - the number of scores
+     * @return - their sum
+     */
+    private static long sum(int[] scores, int count) {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += scores[i];
+        }
+        return sum;
+    }
+}
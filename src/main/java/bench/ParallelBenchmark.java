@@ -0,0 +1,131 @@
+package bench;
+
+import constants.Piece;
+import constants.ReversiConstants;
+import game.Board;
+import game.Engine;
+import game.Evaluation;
+import game.Move;
+import game.ParallelSearch;
+import game.TranspositionTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the speedup and efficiency of the parallel search when solving endgames exactly.
+ * <p>
+ * The test set is the positions of a suite file, by default suites/endgame14.obf when it's there, or else a
+ * fixed (seeded) set of random positions with the same number of empty squares.  Each position is searched to
+ * the end of the game.  Every thread count solves the whole set with a fresh hash table, and every score is
+ * checked against the sequential engine.  Speedup is the time with one worker over the time with n workers,
+ * efficiency is the speedup over n.
+ * <p>
+ * Usage: ParallelBenchmark [suite file or empties] [positions] [split depth] [max threads]
+ */
+public class ParallelBenchmark {
+
+    private static final String DEFAULT_SUITE = "suites/endgame14.obf";
+
+    public static void main(String[] args) throws IOException {
+        String source = args.length > 0 ? args[0] : Files.exists(Paths.get(DEFAULT_SUITE)) ? DEFAULT_SUITE : "16";
+        int positionCount = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int splitDepth = args.length > 2 ? Integer.parseInt(args[2]) : ReversiConstants.SPLIT_DEPTH;
+        int maxThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        List<Piece[][]> positions = new ArrayList<>();
+        List<Piece> players = new ArrayList<>();
+        if (source.matches("\\d+")) {
+            randomPositions(Integer.parseInt(source), positionCount, positions, players);
+        } else {
+            TestSuite.readPositions(source, positions, players);
+            positionCount = Math.min(positionCount, positions.size());
+            System.out.println(positionCount + " positions from " + source);
+        }
+
+        // Every position is searched to the end of the game
+        int[] depths = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            depths[i] = Board.countPieces(positions.get(i), Piece.NONE);
+        }
+
+        // Sequential reference
+        int[] scores = new int[positionCount];
+        long start = System.nanoTime();
+        long sequentialNodes = 0;
+        for (int i = 0; i < positionCount; i++) {
+            Engine engine = new Engine(depths[i], Evaluation::staticEvaluation,
+                    new TranspositionTable(ReversiConstants.HASH_TABLE_BITS));
+            scores[i] = engine.findBestMove(positions.get(i), players.get(i)).getScore();
+            sequentialNodes += engine.getMoveTotalNodes();
+        }
+        System.out.printf("sequential engine: %d nodes in %.1f ms%n",
+                sequentialNodes, (System.nanoTime() - start) / 1e6);
+
+        // Warm up the parallel search before timing it
+        ForkJoinPool warmUp = new ForkJoinPool(maxThreads);
+        for (int i = 0; i < positionCount; i++) {
+            new ParallelSearch(depths[i], splitDepth, Evaluation::staticEvaluation,
+                    new TranspositionTable(ReversiConstants.HASH_TABLE_BITS), null, warmUp)
+                    .findBestMove(positions.get(i), players.get(i));
+        }
+        warmUp.shutdown();
+
+        double oneThreadMillis = 0;
+        // One worker, then doubling up to the maximum
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long nodes = 0;
+            int wrong = 0;
+
+            start = System.nanoTime();
+            for (int i = 0; i < positionCount; i++) {
+                ParallelSearch search = new ParallelSearch(depths[i], splitDepth, Evaluation::staticEvaluation,
+                        new TranspositionTable(ReversiConstants.HASH_TABLE_BITS), null, pool);
+                Move move = search.findBestMove(positions.get(i), players.get(i));
+                nodes += search.getMoveTotalNodes();
+                if (move.getScore() != scores[i]) {
+                    wrong++;
+                }
+            }
+            double millis = (System.nanoTime() - start) / 1e6;
+            pool.shutdown();
+
+            if (threads == 1) {
+                oneThreadMillis = millis;
+            }
+            double speedup = oneThreadMillis / millis;
+            System.out.printf("%d threads: %d nodes in %.1f ms, speedup %.2f, efficiency %.2f, %d wrong scores%n",
+                    threads, nodes, millis, speedup, speedup / threads, wrong);
+            if (threads == maxThreads) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Plays seeded random games to positions with a given number of empty squares
+     *
+     * @param empties - the empty squares of every position
+     * @param count   - the number of positions
+     * @param boards  - receives the positions
+     * @param players - receives the side to move of each position
+     */
+    private static void randomPositions(int empties, int count, List<Piece[][]> boards, List<Piece> players) {
+        Random random = new Random(42);
+        while (boards.size() < count) {
+            List<Piece[][]> candidates = new ArrayList<>();
+            List<Piece> candidatePlayers = new ArrayList<>();
+            SearchBenchmark.randomPositions(1, 60 - empties, 60 - empties, random, candidates, candidatePlayers);
+            if (Board.countPieces(candidates.get(0), Piece.NONE) == empties) {
+                boards.add(candidates.get(0));
+                players.add(candidatePlayers.get(0));
+            }
+        }
+    }
+}
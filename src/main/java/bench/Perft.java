@@ -0,0 +1,65 @@
+package bench;
+
+import constants.Piece;
+import game.Bitboard;
+import game.Board;
+
+/**
+ * Counts the leaves of the full move tree from the start position, to check move generation and flipping
+ * against the published Othello perft numbers and to time them.  A pass counts as a ply, a finished game
+ * is a leaf however shallow.  Every leaf is reached by playing its move, no counting of the last ply's moves.
+ * <p>
+ * Usage: Perft [depth] [rounds]
+ */
+public class Perft {
+
+    private static final int BOARD_SIZE = 8;
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 11;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        Piece[][] board = Board.newBoard(BOARD_SIZE);
+        long player = Bitboard.fromBoard(board, Piece.BLACK);
+        long opponent = Bitboard.fromBoard(board, Piece.WHITE);
+
+        for (int round = 0; round < rounds; round++) {
+            for (int ply = 1; ply <= depth; ply++) {
+                long start = System.nanoTime();
+                long leaves = perft(player, opponent, ply);
+                long nanos = System.nanoTime() - start;
+                if (ply >= depth - 2) {
+                    System.out.printf("round %d: perft(%d) = %d in %.3f s, %.1f M leaves/s%n",
+                            round, ply, leaves, nanos / 1e9, leaves * 1e3 / nanos);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the leaves below a position
+     *
+     * @param player   - pieces of the player to move
+     * @param opponent - pieces of the opponent
+     * @param depth    - plies left
+     * @return - the number of leaves
+     */
+    private static long perft(long player, long opponent, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        long moves = Bitboard.validMoves(player, opponent);
+        if (moves == 0) {
+            return Bitboard.hasMove(opponent, player) ? perft(opponent, player, depth - 1) : 1;
+        }
+
+        long leaves = 0;
+        for (; moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long flipped = Bitboard.flips(player, opponent, square);
+            leaves += perft(opponent & ~flipped, player | flipped | 1L << square, depth - 1);
+        }
+        return leaves;
+    }
+}
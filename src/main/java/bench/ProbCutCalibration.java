@@ -0,0 +1,138 @@
+package bench;
+
+import constants.Piece;
+import game.Board;
+import game.Engine;
+import game.Evaluation;
+import game.Evaluator;
+import game.ProbCut;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Fits the Multi-ProbCut regressions offline from the engine's own full width searches.
+ * <p>
+ * Random positions are collected until every game stage has enough of them, each position is searched to
+ * every depth up to the deepest one, and for every deep depth and each of its shallow depths the deep scores
+ * are fitted against the shallow scores by least squares.  The coefficients are written in the resource
+ * format read by {@link ProbCut#load(String, int)}.
+ * <p>
+ * Usage: ProbCutCalibration [evaluation] [deepest depth] [positions per stage] [output file]
+ */
+public class ProbCutCalibration {
+
+    public static void main(String[] args) throws IOException {
+        String evaluation = args.length > 0 ? args[0] : "staticEvaluation";
+        int deepest = Math.min(ProbCut.MAX_DEPTH, args.length > 1 ? Integer.parseInt(args[1]) : 10);
+        int perStage = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        String file = args.length > 3 ? args[3] : "src/main/resources/probcut_" + evaluation + ".txt";
+
+        Evaluator evaluator;
+        if (evaluation.equals("staticEvaluation")) {
+            evaluator = Evaluation::staticEvaluation;
+        } else if (evaluation.equals("staticEvaluationTwo")) {
+            evaluator = Evaluation::staticEvaluationTwo;
+        } else {
+            System.out.println("Unknown evaluation " + evaluation);
+            return;
+        }
+
+        Engine[] engines = new Engine[deepest + 1];
+        for (int depth = 1; depth <= deepest; depth++) {
+            engines[depth] = new Engine(depth, evaluator);
+        }
+
+        // scores[stage][position][depth], relative to the player to move
+        List<List<int[]>> scores = new ArrayList<>();
+        for (int stage = 0; stage < ProbCut.STAGES; stage++) {
+            scores.add(new ArrayList<>());
+        }
+
+        Random random = new Random(42);
+        int collected = 0;
+        while (collected < perStage * ProbCut.STAGES) {
+            List<Piece[][]> positions = new ArrayList<>();
+            List<Piece> players = new ArrayList<>();
+            SearchBenchmark.randomPositions(1, 0, 58, random, positions, players);
+
+            Piece[][] board = positions.get(0);
+            int stage = ProbCut.stage(Board.countPieces(board, Piece.NONE));
+            if (scores.get(stage).size() >= perStage) {
+                continue;
+            }
+
+            int[] positionScores = new int[deepest + 1];
+            for (int depth = 1; depth <= deepest; depth++) {
+                positionScores[depth] = engines[depth].findBestMove(board, players.get(0)).getScore();
+            }
+            scores.get(stage).add(positionScores);
+            collected++;
+            if (collected % 50 == 0) {
+                System.out.println(collected + " positions searched");
+            }
+        }
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(file), StandardCharsets.US_ASCII))) {
+            out.println("# ProbCut regressions for " + evaluation + ", " + perStage + " positions per stage");
+            out.println("# stage deep shallow slope intercept sigma");
+            for (int stage = 0; stage < ProbCut.STAGES; stage++) {
+                for (int deep = ProbCut.MIN_DEEP_DEPTH; deep <= deepest; deep++) {
+                    for (int check = 0; check < ProbCut.checks(); check++) {
+                        int shallow = ProbCut.shallowDepth(deep, check);
+                        if (shallow > 0) {
+                            out.println(stage + " " + deep + " " + shallow + " "
+                                    + fit(scores.get(stage), shallow, deep));
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println("Wrote " + file);
+    }
+
+    /**
+     * Least squares fit of the deep scores against the shallow scores
+     *
+     * @param scores  - scores of every position, indexed by depth
+     * @param shallow - the shallow depth
+     * @param deep    - the deep depth
+     * @return - "slope intercept sigma", where sigma is the standard deviation of the residuals
+     */
+    private static String fit(List<int[]> scores, int shallow, int deep) {
+        int n = scores.size();
+        double sumX = 0;
+        double sumY = 0;
+        for (int[] score : scores) {
+            sumX += score[shallow];
+            sumY += score[deep];
+        }
+        double meanX = sumX / n;
+        double meanY = sumY / n;
+
+        double sxx = 0;
+        double sxy = 0;
+        for (int[] score : scores) {
+            sxx += (score[shallow] - meanX) * (score[shallow] - meanX);
+            sxy += (score[shallow] - meanX) * (score[deep] - meanY);
+        }
+        double slope = sxx == 0 ? 1 : sxy / sxx;
+        double intercept = meanY - slope * meanX;
+
+        double squaredError = 0;
+        for (int[] score : scores) {
+            double residual = score[deep] - (slope * score[shallow] + intercept);
+            squaredError += residual * residual;
+        }
+        double sigma = Math.sqrt(squaredError / Math.max(1, n - 2));
+
+        return String.format(Locale.ROOT, "%.4f %.4f %.4f", slope, intercept, sigma);
+    }
+}
@@ -0,0 +1,105 @@
+package bench;
+
+import constants.Piece;
+import game.Bitboard;
+import game.Board;
+import game.Engine;
+import game.Evaluation;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures search speed and heap allocation per node on a fixed set of positions.
+ * <p>
+ * Usage: SearchBenchmark [depth] [positions] [rounds]
+ */
+public class SearchBenchmark {
+
+    private static final int BOARD_SIZE = 8;
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int positionCount = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        List<Piece[][]> positions = new ArrayList<>();
+        List<Piece> players = new ArrayList<>();
+        randomPositions(positionCount, positions, players);
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Engine engine = new Engine(depth, Evaluation::staticEvaluation);
+
+        for (int round = 0; round < rounds; round++) {
+            long nodes = 0;
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+
+            for (int i = 0; i < positions.size(); i++) {
+                engine.findBestMove(positions.get(i), players.get(i));
+                nodes += engine.getMoveTotalNodes();
+            }
+
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            System.out.printf("round %d: %d nodes in %.1f ms, %.0f nodes/s, %.3f bytes/node%n",
+                    round, nodes, elapsed / 1e6, nodes * 1e9 / elapsed, (double) allocated / nodes);
+        }
+    }
+
+    /**
+     * Plays random games from the start position to build a fixed (seeded) set of midgame positions
+     *
+     * @param count     - the number of positions
+     * @param positions - receives the boards
+     * @param players   - receives the player to move on each board
+     */
+    static void randomPositions(int count, List<Piece[][]> positions, List<Piece> players) {
+        randomPositions(count, 10, 39, new Random(42), positions, players);
+    }
+
+    /**
+     * Plays random games from the start position, stopping each one after a random number of plies
+     *
+     * @param count     - the number of positions
+     * @param minPlies  - the fewest plies played
+     * @param maxPlies  - the most plies played
+     * @param random    - source of the moves
+     * @param positions - receives the boards
+     * @param players   - receives the player to move on each board
+     */
+    static void randomPositions(int count, int minPlies, int maxPlies, Random random,
+                                List<Piece[][]> positions, List<Piece> players) {
+        int target = positions.size() + count;
+        while (positions.size() < target) {
+            Piece[][] board = Board.newBoard(BOARD_SIZE);
+            Piece player = Piece.BLACK;
+            int plies = minPlies + random.nextInt(maxPlies - minPlies + 1);
+
+            for (int ply = 0; ply < plies; ply++) {
+                long moveMask = Bitboard.validMoves(Bitboard.fromBoard(board, player),
+                        Bitboard.fromBoard(board, Board.getOpposite(player)));
+                List<Integer> moves = new ArrayList<>();
+                for (; moveMask != 0; moveMask &= moveMask - 1) {
+                    moves.add(Long.numberOfTrailingZeros(moveMask));
+                }
+                if (moves.isEmpty()) {
+                    break;
+                }
+                int square = moves.get(random.nextInt(moves.size()));
+                Board.applyMove(board, player, square / BOARD_SIZE, square % BOARD_SIZE);
+                player = Board.getOpposite(player);
+            }
+
+            long own = Bitboard.fromBoard(board, player);
+            if (Bitboard.hasMove(own, Bitboard.fromBoard(board, Board.getOpposite(player)))) {
+                positions.add(board);
+                players.add(player);
+            }
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package bench;
+
+import constants.Piece;
+import constants.ReversiConstants;
+import game.AnalyzedMove;
+import game.Bitboard;
+import game.Board;
+import game.Engine;
+import game.Evaluation;
+import game.Move;
+import game.TimeManager;
+import game.TranspositionTable;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Runs the engine on a suite of test positions and checks it against a stored baseline.
+ * <p>
+ * Suites use the FFO .obf layout, one position per line: 64 squares from a1 to h8 (X black, O white,
+ * - empty), the side to move, then the moves with their exact scores, e.g.
+ * <pre>
+ * OOOO----OOOO-X-XOOOOOXXXOOOXOOOXOOXXXOO-OOOXOOX-X-OOOO----OOOOO- X; H5:-24; E2:-42; B7:-42;
+ * </pre>
+ * Every move with the top score counts as a best move.  Scores are final disc differences counted the FFO way,
+ * the empty squares of a game ending early going to the winner.  Lines starting with # are comments.
+ * <p>
+ * Each position is searched by iterative deepening with the engine of the chosen player, under a time and a
+ * node limit.  A position is solved when the search ends on a best move; its time and nodes to solution are
+ * those of the iteration from which the best move never changed again.  It is exact when the search also
+ * reached the end of the game with the suite's score.  Only the white engine is checked for exact scores, its
+ * evaluation is the disc count; the black engine's adds a corner bonus, so its scores never match a suite's.
+ * <p>
+ * The results are written one position per line and can be stored as a baseline.  Against a baseline every
+ * changed field is printed as "diff id field baseline current status", and the run exits with status 1 if
+ * a position is no longer solved or needs more nodes than the tolerance allows.  Nodes are deterministic,
+ * times are reported but never fail the run.
+ * <p>
+ * Usage: TestSuite suite [-time millis] [-nodes n] [-engine white|black] [-results file] [-baseline file]
+ * [-tolerance fraction]
+ * <br>
+ * TestSuite -generate empties count file, writes a suite of random endgames solved by a full width search
+ */
+public class TestSuite {
+
+    private static final int BOARD_SIZE = 8;
+
+    // Exit status when the run is worse than the baseline, or the arguments are wrong
+    private static final int REGRESSION_STATUS = 1;
+    private static final int USAGE_STATUS = 2;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 4 && args[0].equals("-generate")) {
+            generate(Integer.parseInt(args[1]), Integer.parseInt(args[2]), args[3]);
+            return;
+        }
+        if (args.length == 0) {
+            System.err.println("Usage: TestSuite suite [-time millis] [-nodes n] [-engine white|black] "
+                    + "[-results file] [-baseline file] [-tolerance fraction]");
+            System.exit(USAGE_STATUS);
+        }
+
+        long timeMillis = 60000;
+        long nodeLimit = 10000000;
+        Piece engine = Piece.WHITE;
+        String resultsFile = null;
+        String baselineFile = null;
+        double tolerance = 0.1;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-time":
+                    timeMillis = Long.parseLong(args[i + 1]);
+                    break;
+                case "-nodes":
+                    nodeLimit = Long.parseLong(args[i + 1]);
+                    break;
+                case "-engine":
+                    engine = args[i + 1].equals("black") ? Piece.BLACK : Piece.WHITE;
+                    break;
+                case "-results":
+                    resultsFile = args[i + 1];
+                    break;
+                case "-baseline":
+                    baselineFile = args[i + 1];
+                    break;
+                case "-tolerance":
+                    tolerance = Double.parseDouble(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(USAGE_STATUS);
+            }
+        }
+
+        List<TestPosition> suite = readSuite(args[0]);
+        List<Result> results = run(suite, engine, timeMillis, nodeLimit);
+
+        if (resultsFile != null) {
+            writeResults(results, resultsFile);
+        }
+        if (baselineFile != null) {
+            int regressions = diff(readResults(baselineFile), results, tolerance);
+            if (regressions > 0) {
+                System.err.println("FAILED: " + regressions + " regressions against " + baselineFile);
+                System.exit(REGRESSION_STATUS);
+            }
+            System.out.println("No regressions against " + baselineFile);
+        }
+    }
+
+    /**
+     * Searches every position of a suite
+     *
+     * @param suite      - the positions
+     * @param player     - the player whose engine configuration is tested
+     * @param timeMillis - time limit per position
+     * @param nodeLimit  - node limit per position
+     * @return - the result of every position
+     */
+    private static List<Result> run(List<TestPosition> suite, Piece player, long timeMillis, long nodeLimit) {
+        TranspositionTable table = new TranspositionTable(ReversiConstants.HASH_TABLE_BITS);
+        Engine engine = Engine.forPlayer(player, table, ReversiConstants.MAX_SEARCH_DEPTH);
+        List<Result> results = new ArrayList<>();
+
+        // Scores of finished games are disc counts only for the white engine's evaluation
+        boolean discCount = player == Piece.WHITE;
+
+        int solved = 0;
+        int exact = 0;
+        long totalMillis = 0;
+        long totalNodes = 0;
+        System.out.println("  id  empties  best  found  score  depth  solved  time(ms)     nodes");
+
+        for (TestPosition position : suite) {
+            table.clear();
+            Result result = new Result(position.id);
+            long start = System.nanoTime();
+
+            Move move = engine.findBestMove(position.board, position.player, TimeManager.fixed(timeMillis, nodeLimit),
+                    (depth, bestMove, nodes) -> {
+                        int square = bestMove.getRow() * BOARD_SIZE + bestMove.getColumn();
+                        if (!position.isBest(square)) {
+                            result.millis = -1;
+                            result.nodes = -1;
+                        } else if (result.millis < 0) {
+                            result.millis = (System.nanoTime() - start) / 1000000L;
+                            result.nodes = nodes;
+                        }
+                        result.depth = depth;
+                    });
+
+            int square = move.getRow() < 0 ? Move.NO_SQUARE : move.getRow() * BOARD_SIZE + move.getColumn();
+            result.square = square;
+            result.score = move.getScore();
+            result.solved = position.isBest(square);
+            if (result.solved && result.millis < 0) {
+                // A single valid move is played without searching
+                result.millis = 0;
+                result.nodes = 0;
+            }
+            result.exact = discCount && result.solved && result.depth >= position.empties()
+                    && result.score == position.bestScore;
+
+            if (result.solved) {
+                solved++;
+                totalMillis += result.millis;
+                totalNodes += result.nodes;
+            }
+            if (result.exact) {
+                exact++;
+            }
+            results.add(result);
+
+            System.out.printf("%4d  %7d  %4s  %5s  %5d  %5d  %6s  %8d  %9d%n", position.id, position.empties(),
+                    squareName(position.bestSquares.get(0)), squareName(square), result.score, result.depth,
+                    result.solved ? (result.exact ? "exact" : "yes") : "no", result.millis, result.nodes);
+        }
+
+        System.out.printf("solved %d of %d (%d exact), %d ms and %d nodes to solution in total%n",
+                solved, suite.size(), exact, totalMillis, totalNodes);
+        return results;
+    }
+
+    /**
+     * Compares a run with a baseline, printing every difference
+     *
+     * @param baseline  - results of the baseline run
+     * @param results   - results of this run
+     * @param tolerance - fraction by which the nodes to solution may grow
+     * @return - the number of regressions
+     */
+    private static int diff(Map<Integer, Result> baseline, List<Result> results, double tolerance) {
+        int regressions = 0;
+        for (Result result : results) {
+            Result old = baseline.get(result.id);
+            if (old == null) {
+                System.out.println("diff " + result.id + " position - new NEW");
+                continue;
+            }
+
+            if (old.solved != result.solved) {
+                boolean regression = old.solved;
+                System.out.println("diff " + result.id + " solved " + old.solved + " " + result.solved + " "
+                        + (regression ? "REGRESSION" : "IMPROVEMENT"));
+                if (regression) {
+                    regressions++;
+                }
+            } else if (result.solved) {
+                if (result.nodes > old.nodes * (1 + tolerance)) {
+                    System.out.println("diff " + result.id + " nodes " + old.nodes + " " + result.nodes
+                            + " REGRESSION");
+                    regressions++;
+                } else if (result.nodes != old.nodes) {
+                    System.out.println("diff " + result.id + " nodes " + old.nodes + " " + result.nodes + " "
+                            + (result.nodes < old.nodes ? "IMPROVEMENT" : "CHANGED"));
+                }
+                if (result.millis != old.millis) {
+                    System.out.println("diff " + result.id + " time " + old.millis + " " + result.millis + " "
+                            + (result.millis < old.millis ? "FASTER" : "SLOWER"));
+                }
+            }
+
+            if (old.exact != result.exact) {
+                System.out.println("diff " + result.id + " exact " + old.exact + " " + result.exact + " "
+                        + (old.exact ? "REGRESSION" : "IMPROVEMENT"));
+                if (old.exact) {
+                    regressions++;
+                }
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Writes a suite of random endgames, every move scored exactly by a full width search to the end
+     *
+     * @param empties - the number of empty squares of every position
+     * @param count   - the number of positions
+     * @param file    - the suite file to write
+     * @throws IOException - if the file can't be written
+     */
+    private static void generate(int empties, int count, String file) throws IOException {
+        Random random = new Random(42);
+        TranspositionTable table = new TranspositionTable(ReversiConstants.HASH_TABLE_BITS);
+        Engine engine = new Engine(empties, Evaluation::staticEvaluation, table);
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(file), StandardCharsets.US_ASCII))) {
+            out.println("# " + count + " random endgames with " + empties + " empty squares, solved to the end");
+            int written = 0;
+            while (written < count) {
+                List<Piece[][]> positions = new ArrayList<>();
+                List<Piece> players = new ArrayList<>();
+                SearchBenchmark.randomPositions(1, 60 - empties, 60 - empties, random, positions, players);
+                Piece[][] board = positions.get(0);
+                if (Board.countPieces(board, Piece.NONE) != empties) {
+                    continue;
+                }
+
+                table.clear();
+                List<AnalyzedMove> ranking = engine.analyze(board, players.get(0), Bitboard.SQUARES, null);
+                StringBuilder line = new StringBuilder();
+                for (int i = 0; i < BOARD_SIZE; i++) {
+                    for (int j = 0; j < BOARD_SIZE; j++) {
+                        line.append(board[i][j] == Piece.BLACK ? 'X' : board[i][j] == Piece.WHITE ? 'O' : '-');
+                    }
+                }
+                line.append(players.get(0) == Piece.BLACK ? " X;" : " O;");
+                for (AnalyzedMove move : ranking) {
+                    line.append(' ').append(Board.squareName(move.getRow(), move.getColumn()).toUpperCase())
+                            .append(':').append(move.getScore() >= 0 ? "+" : "").append(move.getScore()).append(';');
+                }
+                out.println(line);
+                written++;
+            }
+        }
+        System.out.println("Wrote " + count + " positions to " + file);
+    }
+
+    /**
+     * Reads a suite file
+     *
+     * @param file - the suite file
+     * @return - the positions, numbered from 1 in file order
+     * @throws IOException - if the file can't be read
+     */
+    private static List<TestPosition> readSuite(String file) throws IOException {
+        List<TestPosition> suite = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.US_ASCII)) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                suite.add(TestPosition.parse(suite.size() + 1, line));
+            } catch (RuntimeException e) {
+                System.err.println(file + ":" + lineNumber + ": bad position, " + e.getMessage());
+                System.exit(USAGE_STATUS);
+            }
+        }
+        return suite;
+    }
+
+    /**
+     * Reads the positions of a suite file for the benchmarks that time searches on them
+     *
+     * @param file    - the suite file
+     * @param boards  - receives the positions, in file order
+     * @param players - receives the side to move of each position
+     * @throws IOException - if the file can't be read
+     */
+    static void readPositions(String file, List<Piece[][]> boards, List<Piece> players) throws IOException {
+        for (TestPosition position : readSuite(file)) {
+            boards.add(position.board);
+            players.add(position.player);
+        }
+    }
+
+    /**
+     * Writes the results of a run
+     *
+     * @param results - the results
+     * @param file    - the file to write
+     * @throws IOException - if the file can't be written
+     */
+    private static void writeResults(List<Result> results, String file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(file), StandardCharsets.US_ASCII))) {
+            out.println("# id solved exact millis nodes depth move score");
+            for (Result result : results) {
+                out.println(result.id + " " + result.solved + " " + result.exact + " " + result.millis + " "
+                        + result.nodes + " " + result.depth + " " + squareName(result.square) + " " + result.score);
+            }
+        }
+    }
+
+    /**
+     * Reads the results of an earlier run
+     *
+     * @param file - the results file
+     * @return - the results by position id
+     * @throws IOException - if the file can't be read
+     */
+    private static Map<Integer, Result> readResults(String file) throws IOException {
+        Map<Integer, Result> results = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.US_ASCII)) {
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.trim().split("\\s+");
+            Result result = new Result(Integer.parseInt(fields[0]));
+            result.solved = Boolean.parseBoolean(fields[1]);
+            result.exact = Boolean.parseBoolean(fields[2]);
+            result.millis = Long.parseLong(fields[3]);
+            result.nodes = Long.parseLong(fields[4]);
+            result.depth = Integer.parseInt(fields[5]);
+            result.square = Board.parseSquare(fields[6], BOARD_SIZE);
+            result.score = Integer.parseInt(fields[7]);
+            results.put(result.id, result);
+        }
+        return results;
+    }
+
+    /**
+     * Names a square index, "--" for no square
+     *
+     * @param square - the square index
+     * @return - the square name
+     */
+    private static String squareName(int square) {
+        return square < 0 ? "--" : Board.squareName(square / BOARD_SIZE, square % BOARD_SIZE);
+    }
+
+    /**
+     * A position of a suite with its best moves
+     */
+    private static final class TestPosition {
+
+        private final int id;
+        private final Piece[][] board;
+        private final Piece player;
+        private final List<Integer> bestSquares;
+        private final int bestScore;
+
+        private TestPosition(int id, Piece[][] board, Piece player, List<Integer> bestSquares, int bestScore) {
+            this.id = id;
+            this.board = board;
+            this.player = player;
+            this.bestSquares = bestSquares;
+            this.bestScore = bestScore;
+        }
+
+        /**
+         * Parses a line in the .obf layout
+         *
+         * @param id   - the position number
+         * @param line - the line
+         * @return - the position
+         */
+        static TestPosition parse(int id, String line) {
+            String[] fields = line.split(";");
+            String[] position = fields[0].trim().split("\\s+");
+            if (position.length < 2 || position[0].length() != BOARD_SIZE * BOARD_SIZE) {
+                throw new IllegalArgumentException("expected 64 squares and the side to move");
+            }
+
+            Piece[][] board = new Piece[BOARD_SIZE][BOARD_SIZE];
+            for (int i = 0; i < BOARD_SIZE * BOARD_SIZE; i++) {
+                char c = Character.toUpperCase(position[0].charAt(i));
+                board[i / BOARD_SIZE][i % BOARD_SIZE] = c == 'X' ? Piece.BLACK : c == 'O' ? Piece.WHITE : Piece.NONE;
+            }
+            Piece player = Character.toUpperCase(position[1].charAt(0)) == 'X' ? Piece.BLACK : Piece.WHITE;
+
+            List<Integer> bestSquares = new ArrayList<>();
+            int bestScore = Integer.MIN_VALUE;
+            for (int i = 1; i < fields.length; i++) {
+                String field = fields[i].trim();
+                if (field.isEmpty()) {
+                    continue;
+                }
+                String[] move = field.split(":");
+                int square = Board.parseSquare(move[0], BOARD_SIZE);
+                int score = Integer.parseInt(move[1].trim());
+                if (square < 0) {
+                    throw new IllegalArgumentException("not a square: " + move[0]);
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestSquares.clear();
+                }
+                if (score == bestScore) {
+                    bestSquares.add(square);
+                }
+            }
+            if (bestSquares.isEmpty()) {
+                throw new IllegalArgumentException("no scored moves");
+            }
+            return new TestPosition(id, board, player, bestSquares, bestScore);
+        }
+
+        boolean isBest(int square) {
+            return bestSquares.contains(square);
+        }
+
+        int empties() {
+            return Board.countPieces(board, Piece.NONE);
+        }
+    }
+
+    /**
+     * The outcome of one position, -1 time and nodes when it wasn't solved
+     */
+    private static final class Result {
+
+        private final int id;
+        private boolean solved;
+        private boolean exact;
+        private long millis = -1;
+        private long nodes = -1;
+        private int depth;
+        private int square = Move.NO_SQUARE;
+        private int score;
+
+        Result(int id) {
+            this.id = id;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 package constants;
 
 public enum Piece {
-    WHITE, BLACK, POSSIBLE_MOVE, NONE
+    WHITE, BLACK, NONE
 }
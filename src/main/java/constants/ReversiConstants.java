@@ -1,5 +1,7 @@
 package constants;
 
+import java.io.File;
+
 public class ReversiConstants {
 
     public static final String ROW = "ROW";
@@ -13,4 +15,41 @@ public class ReversiConstants {
     public static final int MINIMAX_DEPTH_BLACK_PIECE = 1;
 
     public static final int NUMBER_OF_AI = 2;
+
+    // Clock each side starts a GUI game with, 0 plays untimed at the fixed depths above
+    public static final long GAME_CLOCK_MILLIS = 0;
+
+    // Deepest a timed search may go, the clock normally stops it long before
+    public static final int MAX_SEARCH_DEPTH = 60;
+
+    // ProbCut selectivity of the engines, 0 searches full width, 1 (safest) to 4 (most pruning)
+    public static final int SELECTIVITY = 2;
+
+    // Nodes with at least this many plies left are split between the workers of a parallel search
+    public static final int SPLIT_DEPTH = 6;
+
+    // Hash table size, 2^bits entries of 16 bytes
+    public static final int HASH_TABLE_BITS = 20;
+
+    // Search results at least this deep are saved on exit and merged back at startup, 0 always starts cold
+    public static final int PERSIST_MIN_DEPTH = 8;
+
+    // Directory the saved search results are kept in, the reversi.analysis.dir system property if it's set
+    public static final String ANALYSIS_DIRECTORY = System.getProperty("reversi.analysis.dir",
+            System.getProperty("user.home") + File.separator + ".reversi");
+
+    // Score the children of a node one ply above the leaves in one batch, when the evaluation can (squareTable)
+    public static final boolean BATCH_LEAF_EVALUATION = false;
+
+    // Show the analysis score of every valid move on the yellow squares
+    public static final boolean SHOW_ANALYSIS = false;
+
+    // Local port the headless engine server listens on
+    public static final int SERVER_PORT = 9797;
+
+    // Local port the self-play coordinator hands out games on
+    public static final int SELFPLAY_PORT = 9798;
+
+    // Clock each side of a server session starts with (5 minutes)
+    public static final long SESSION_CLOCK_MILLIS = 5 * 60 * 1000;
 }
@@ -0,0 +1,17 @@
+package game;
+
+import java.util.List;
+
+/**
+ * Receives the intermediate results of an analysis as the search gets deeper
+ */
+public interface AnalysisListener {
+
+    /**
+     * Called after every iteration of the analysis
+     *
+     * @param depth   - the depth just completed
+     * @param ranking - every root move, best first
+     */
+    void onIteration(int depth, List<AnalyzedMove> ranking);
+}
@@ -0,0 +1,91 @@
+package game;
+
+/**
+ * One root move of an analysis with its score and principal variation
+ */
+public class AnalyzedMove {
+
+    private final int row;
+    private final int column;
+    private final int score;
+    private final boolean exact;
+    private final boolean selective;
+    private final int depth;
+    private final int[] principalVariation;
+
+    /**
+     * @param row                - row of the move
+     * @param column             - column of the move
+     * @param score              - the score relative to the player to move at the root
+     * @param exact              - true if the score is exact, false if it's an upper bound
+     * @param selective          - true if ProbCut may have cut the search, so the score is probable, not proven
+     * @param depth              - the depth the move was searched to
+     * @param principalVariation - square indices (row * size + column) of the line, starting with this move
+     */
+    public AnalyzedMove(int row, int column, int score, boolean exact, boolean selective, int depth,
+                        int[] principalVariation) {
+        this.row = row;
+        this.column = column;
+        this.score = score;
+        this.exact = exact;
+        this.selective = selective;
+        this.depth = depth;
+        this.principalVariation = principalVariation;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns false when the move was proven no better than the score, which is then an upper bound
+     *
+     * @return - true if the score is exact
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    public boolean isSelective() {
+        return selective;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int[] getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    /**
+     * Formats the score, prefixed with &lt;= if it is an upper bound and ~ if it is from a selective search
+     *
+     * @return - the score text
+     */
+    public String getScoreText() {
+        return (exact ? "" : "<=") + (selective ? "~" : "") + score;
+    }
+
+    /**
+     * Formats the principal variation as square names, e.g. d3c5f6
+     *
+     * @param boardSize - the size of the game board
+     * @return - the principal variation text
+     */
+    public String getPrincipalVariationText(int boardSize) {
+        StringBuilder text = new StringBuilder();
+        for (int square : principalVariation) {
+            text.append(Board.squareName(square / boardSize, square % boardSize));
+        }
+        return text.toString();
+    }
+}
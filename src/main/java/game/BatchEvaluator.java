@@ -0,0 +1,22 @@
+package game;
+
+/**
+ * A static evaluation function that can also score many positions in one call, e.g. every child of a node
+ * one ply above the leaves.  The default batch scores the positions one by one.
+ */
+public interface BatchEvaluator extends Evaluator {
+
+    /**
+     * Scores a batch of positions, each from the point of view of one player
+     *
+     * @param own      - bitboards of the pieces of the players the scores are relative to
+     * @param opponent - bitboards of the other players' pieces
+     * @param count    - the number of positions, from index 0
+     * @param scores   - receives the static evaluation of each position
+     */
+    default void evaluate(long[] own, long[] opponent, int count, int[] scores) {
+        for (int i = 0; i < count; i++) {
+            scores[i] = evaluate(own[i], opponent[i]);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package game;
+
+import constants.Piece;
+
+/**
+ * Bitboard helpers used by the search.  A position is two longs, the pieces of the player to move and the
+ * pieces of the opponent, with bit (row * 8 + column) set for every occupied square.  Valid moves come back
+ * as a mask of the same layout, so the position itself only ever holds pieces.
+ */
+public final class Bitboard {
+
+    public static final int SQUARES = 64;
+
+    public static final long CORNERS = 0x8100000000000081L;
+
+    // Masks that drop pieces which wrapped around from one edge column to the other after a shift
+    private static final long NOT_FIRST_COLUMN = 0xfefefefefefefefeL;
+    private static final long NOT_LAST_COLUMN = 0x7f7f7f7f7f7f7f7fL;
+
+    // Shift amounts of the four line directions, with the wrap masks for shifting left (towards higher
+    // squares) and right (towards lower squares)
+    private static final int[] SHIFTS = {1, 8, 9, 7};
+    private static final long[] LEFT_MASKS = {NOT_FIRST_COLUMN, -1L, NOT_FIRST_COLUMN, NOT_LAST_COLUMN};
+    private static final long[] RIGHT_MASKS = {NOT_LAST_COLUMN, -1L, NOT_LAST_COLUMN, NOT_FIRST_COLUMN};
+
+    private static final int LINE = 8;
+    private static final long FIRST_COLUMN = 0x0101010101010101L;
+
+    // Multiplying the first column by this gathers its rows into the top byte, row 0 in the lowest bit
+    private static final long FILE_GATHER = 0x0102040810204080L;
+
+    // The diagonal (row - column constant) and anti-diagonal (row + column constant) through each square
+    private static final long[] DIAGONALS = new long[SQUARES];
+    private static final long[] ANTI_DIAGONALS = new long[SQUARES];
+
+    // Flips are worked out on a line of 8 squares: OUTFLANK[position * 64 + inner opponent squares] has the
+    // squares just past each run of opponent pieces next to the position, the ones a player piece must be on,
+    // and FLIPPED[position * 256 + outflanking player pieces] has the squares between them and the position
+    private static final byte[] OUTFLANK = new byte[LINE * 64];
+    private static final byte[] FLIPPED = new byte[LINE * 256];
+
+    // The squares of a line as the first column of the board, bit i on row i
+    private static final long[] FILE_SPREAD = new long[256];
+
+    static {
+        for (int square = 0; square < SQUARES; square++) {
+            int row = square / LINE;
+            int column = square % LINE;
+            for (int other = 0; other < SQUARES; other++) {
+                if (other / LINE - other % LINE == row - column) {
+                    DIAGONALS[square] |= 1L << other;
+                }
+                if (other / LINE + other % LINE == row + column) {
+                    ANTI_DIAGONALS[square] |= 1L << other;
+                }
+            }
+        }
+
+        for (int position = 0; position < LINE; position++) {
+            for (int inner = 0; inner < 64; inner++) {
+                int opponent = inner << 1;
+                int outflank = 0;
+                int x = position + 1;
+                while (x < LINE && (opponent & 1 << x) != 0) {
+                    x++;
+                }
+                if (x < LINE) {
+                    outflank |= 1 << x;
+                }
+                x = position - 1;
+                while (x >= 0 && (opponent & 1 << x) != 0) {
+                    x--;
+                }
+                if (x >= 0) {
+                    outflank |= 1 << x;
+                }
+                OUTFLANK[position * 64 + inner] = (byte) outflank;
+            }
+
+            for (int outflank = 0; outflank < 256; outflank++) {
+                int flipped = 0;
+                int run = 0;
+                int x = position + 1;
+                for (; x < LINE && (outflank & 1 << x) == 0; x++) {
+                    run |= 1 << x;
+                }
+                if (x < LINE) {
+                    flipped |= run;
+                }
+                run = 0;
+                x = position - 1;
+                for (; x >= 0 && (outflank & 1 << x) == 0; x--) {
+                    run |= 1 << x;
+                }
+                if (x >= 0) {
+                    flipped |= run;
+                }
+                FLIPPED[position * 256 + outflank] = (byte) flipped;
+            }
+        }
+
+        for (int line = 0; line < 256; line++) {
+            for (int i = 0; i < LINE; i++) {
+                if ((line & 1 << i) != 0) {
+                    FILE_SPREAD[line] |= 1L << i * LINE;
+                }
+            }
+        }
+    }
+
+    private Bitboard() {
+    }
+
+    /**
+     * Gets the squares holding a piece as a bitboard
+     *
+     * @param board - an 8x8 board
+     * @param piece - the piece
+     * @return - the bitboard of the piece
+     */
+    public static long fromBoard(Piece[][] board, Piece piece) {
+        long bits = 0;
+        for (int i = 0; i < board.length; i++) {
+            for (int j = 0; j < board.length; j++) {
+                if (board[i][j].equals(piece)) {
+                    bits |= 1L << (i * board.length + j);
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Finds every valid move of the player, filling each direction at once
+     *
+     * @param player   - pieces of the player to move
+     * @param opponent - pieces of the opponent
+     * @return - mask of the valid moves
+     */
+    public static long validMoves(long player, long opponent) {
+        long empty = ~(player | opponent);
+        long moves = 0;
+
+        for (int i = 0; i < SHIFTS.length; i++) {
+            int shift = SHIFTS[i];
+
+            // Runs of opponent pieces starting next to one of ours, then the empty square that closes them
+            long leftOpponent = opponent & LEFT_MASKS[i];
+            long x = (player << shift) & leftOpponent;
+            x |= (x << shift) & leftOpponent;
+            x |= (x << shift) & leftOpponent;
+            x |= (x << shift) & leftOpponent;
+            x |= (x << shift) & leftOpponent;
+            x |= (x << shift) & leftOpponent;
+            moves |= (x << shift) & LEFT_MASKS[i] & empty;
+
+            long rightOpponent = opponent & RIGHT_MASKS[i];
+            x = (player >>> shift) & rightOpponent;
+            x |= (x >>> shift) & rightOpponent;
+            x |= (x >>> shift) & rightOpponent;
+            x |= (x >>> shift) & rightOpponent;
+            x |= (x >>> shift) & rightOpponent;
+            x |= (x >>> shift) & rightOpponent;
+            moves |= (x >>> shift) & RIGHT_MASKS[i] & empty;
+        }
+
+        return moves;
+    }
+
+    /**
+     * Checks if the player has any valid move
+     *
+     * @param player   - pieces of the player to move
+     * @param opponent - pieces of the opponent
+     * @return - true if the player can move
+     */
+    public static boolean hasMove(long player, long opponent) {
+        return validMoves(player, opponent) != 0;
+    }
+
+    /**
+     * Counts the valid moves of the player
+     *
+     * @param player   - pieces of the player to move
+     * @param opponent - pieces of the opponent
+     * @return - the number of valid moves
+     */
+    public static int moveCount(long player, long opponent) {
+        return Long.bitCount(validMoves(player, opponent));
+    }
+
+    /**
+     * Checks if the game is over, neither player can move
+     *
+     * @param player   - pieces of the player to move
+     * @param opponent - pieces of the opponent
+     * @return - true if neither player has a valid move
+     */
+    public static boolean isTerminal(long player, long opponent) {
+        return validMoves(player, opponent) == 0 && validMoves(opponent, player) == 0;
+    }
+
+    /**
+     * Scores a finished game as in tournaments: the piece difference, with the empty squares counted for the
+     * winner
+     *
+     * @param player   - pieces of the player the score is relative to
+     * @param opponent - pieces of the opponent
+     * @return - the final score
+     */
+    public static int finalScore(long player, long opponent) {
+        int discs = Long.bitCount(player) - Long.bitCount(opponent);
+        int empties = SQUARES - Long.bitCount(player | opponent);
+        return discs > 0 ? discs + empties : discs < 0 ? discs - empties : 0;
+    }
+
+    /**
+     * Finds the opponent pieces a move flips.  Each of the four lines through the square is gathered into a
+     * byte, and two table lookups give the flipped squares of the line without looping over it.
+     *
+     * @param player   - pieces of the player to move
+     * @param opponent - pieces of the opponent
+     * @param square   - the square index of a valid move
+     * @return - mask of the flipped pieces
+     */
+    public static long flips(long player, long opponent, int square) {
+        int column = square & 7;
+        int rowShift = square & ~7;
+
+        long flipped = (long) lineFlips(column, (int) (player >>> rowShift) & 0xff,
+                (int) (opponent >>> rowShift) & 0xff) << rowShift;
+
+        flipped |= FILE_SPREAD[lineFlips(square >>> 3,
+                (int) (((player >>> column) & FIRST_COLUMN) * FILE_GATHER >>> 56),
+                (int) (((opponent >>> column) & FIRST_COLUMN) * FILE_GATHER >>> 56))] << column;
+
+        // A diagonal has one square per column, so its byte is indexed by column and copied back to every row
+        long diagonal = DIAGONALS[square];
+        flipped |= lineFlips(column, (int) ((player & diagonal) * FIRST_COLUMN >>> 56),
+                (int) ((opponent & diagonal) * FIRST_COLUMN >>> 56)) * FIRST_COLUMN & diagonal;
+
+        long antiDiagonal = ANTI_DIAGONALS[square];
+        flipped |= lineFlips(column, (int) ((player & antiDiagonal) * FIRST_COLUMN >>> 56),
+                (int) ((opponent & antiDiagonal) * FIRST_COLUMN >>> 56)) * FIRST_COLUMN & antiDiagonal;
+
+        return flipped;
+    }
+
+    /**
+     * Finds the squares a move flips on one line of 8
+     *
+     * @param position - the square of the move on the line
+     * @param player   - the player's pieces on the line
+     * @param opponent - the opponent's pieces on the line
+     * @return - the flipped squares of the line
+     */
+    private static int lineFlips(int position, int player, int opponent) {
+        int outflank = OUTFLANK[position * 64 + (opponent >>> 1 & 0x3f)] & player;
+        return FLIPPED[position * 256 + outflank] & 0xff;
+    }
+}
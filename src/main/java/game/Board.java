@@ -0,0 +1,183 @@
+package game;
+
+import constants.Piece;
+
+import java.util.Arrays;
+
+/**
+ * Board helpers shared by the GUI and the headless server.
+ * A board is a square Piece[][] where the top left corner is 0,0, holding only pieces; valid moves are
+ * found with {@link Bitboard}.
+ */
+public final class Board {
+
+    private Board() {
+    }
+
+    /**
+     * Creates a board with the four starting pieces in the center
+     *
+     * @param boardSize - the size of the game board
+     * @return - the initial board
+     */
+    public static Piece[][] newBoard(int boardSize) {
+        Piece[][] board = new Piece[boardSize][boardSize];
+
+        // Fill the board with nothing
+        for (int i = 0; i < boardSize; i++) {
+            Arrays.fill(board[i], Piece.NONE);
+        }
+
+        // Initial piece placement
+        int center = boardSize / 2;
+        board[center - 1][center - 1] = Piece.WHITE;
+        board[center - 1][center] = Piece.BLACK;
+        board[center][center - 1] = Piece.BLACK;
+        board[center][center] = Piece.WHITE;
+
+        return board;
+    }
+
+    /**
+     * Make a copy of the game board
+     *
+     * @param board - the board to copy
+     * @return - a copy of the board passed in
+     */
+    public static Piece[][] makeCopy(Piece[][] board) {
+        Piece[][] newBoard = new Piece[board.length][board.length];
+        for (int i = 0; i < board.length; i++) {
+            for (int j = 0; j < board.length; j++) {
+                newBoard[i][j] = board[i][j];
+            }
+        }
+        return newBoard;
+    }
+
+    /**
+     * Gets the opposite of the passed in piece
+     *
+     * @param piece - the piece to get the opposite of
+     * @return the opposite piece of the passed im param
+     */
+    public static Piece getOpposite(Piece piece) {
+        return piece.equals(Piece.BLACK) ? Piece.WHITE : Piece.BLACK;
+    }
+
+    /**
+     * Counts the number of squares holding the given piece
+     *
+     * @param board - the board
+     * @param piece - the piece to count
+     * @return - the number of squares holding the piece
+     */
+    public static int countPieces(Piece[][] board, Piece piece) {
+        int count = 0;
+        for (int i = 0; i < board.length; i++) {
+            for (int j = 0; j < board.length; j++) {
+                if (board[i][j].equals(piece)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Places a piece for the player and flips every outflanked line.  The board must be 8x8, the size of a
+     * bitboard.
+     *
+     * @param board  - the board to play on
+     * @param player - the player moving
+     * @param row    - row to place piece at
+     * @param column - column to place piece at
+     * @return - true if at least one line was flipped (the move was valid)
+     */
+    public static boolean applyMove(Piece[][] board, Piece player, int row, int column) {
+        if (!board[row][column].equals(Piece.NONE)) {
+            return false;
+        }
+
+        int size = board.length;
+        long own = Bitboard.fromBoard(board, player);
+        long opponent = Bitboard.fromBoard(board, getOpposite(player));
+        long flipped = Bitboard.flips(own, opponent, row * size + column);
+        if (flipped == 0) {
+            return false;
+        }
+
+        board[row][column] = player;
+        for (; flipped != 0; flipped &= flipped - 1) {
+            int square = Long.numberOfTrailingZeros(flipped);
+            board[square / size][square % size] = player;
+        }
+        return true;
+    }
+
+    /**
+     * Formats a board location in the usual notation, column letter then row number (e.g. d3)
+     *
+     * @param row    - the row
+     * @param column - the column
+     * @return - the square name
+     */
+    public static String squareName(int row, int column) {
+        return "" + (char) ('a' + column) + (row + 1);
+    }
+
+    /**
+     * Parses a square name such as d3 into its row * boardSize + column index
+     *
+     * @param square    - the square name
+     * @param boardSize - the size of the game board
+     * @return - the square index, or -1 if the name is not on the board
+     */
+    public static int parseSquare(String square, int boardSize) {
+        if (square == null || square.length() < 2) {
+            return -1;
+        }
+        int column = Character.toLowerCase(square.charAt(0)) - 'a';
+        int row;
+        try {
+            row = Integer.parseInt(square.substring(1)) - 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        if (row < 0 || row >= boardSize || column < 0 || column >= boardSize) {
+            return -1;
+        }
+        return row * boardSize + column;
+    }
+
+    /**
+     * Prints the board for debugging as passed in
+     * @param board - the board to print out
+     */
+    public static void printBoard(Piece[][] board) {
+        System.out.println("Printing board");
+        System.out.print(toText(board));
+    }
+
+    /**
+     * Renders the board as text, X for black, O for white and _ for empty
+     *
+     * @param board - the board to render
+     * @return - one line per row
+     */
+    public static String toText(Piece[][] board) {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < board.length; i++) {
+            for(int j = 0; j < board.length; j++) {
+                if(board[i][j].equals(Piece.BLACK)) {
+                    text.append("X ");
+                } else if(board[i][j].equals(Piece.WHITE)) {
+                    text.append("O ");
+                } else {
+                    text.append("_ ");
+                }
+            }
+            text.append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,874 @@
+package game;
+
+import constants.Piece;
+import constants.ReversiConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Minimax search with alpha-beta pruning.  An engine has no GUI state, so it can be driven by the
+ * Swing game or by the headless server.  An engine instance is not thread safe; use one per search thread.
+ * Its buffers are reused, so keeping an engine around for several searches avoids allocating them again.
+ * <p>
+ * The search runs on bitboards (see {@link Bitboard}), the Piece[][] boards of the callers are only read at
+ * the root.  Square indices are row * 8 + column.
+ */
+public class Engine {
+
+    // A root move leading every other move by this much dominates, so a timed search can stop early
+    private static final int DOMINANCE_MARGIN = 8;
+
+    // Nodes between checks of the clock
+    private static final int TIME_CHECK_NODES = 1024;
+
+    private static final int SIZE = 8;
+
+    // Returned by probableCut when the node has to be searched
+    private static final int NO_CUT = Integer.MIN_VALUE + 1;
+
+    // Returned by storedScore when the stored result doesn't settle the node
+    static final int NO_SCORE = Integer.MIN_VALUE + 2;
+
+    // Returned by noMoveScore when the player passes
+    static final int PASS = Integer.MIN_VALUE + 3;
+
+    private final int maxDepth;
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+
+    // Forward pruning, null for a full-width search
+    private final ProbCut probCut;
+
+    // The evaluator if it scores batches and batching is on, the children of frontier nodes are then scored together
+    private BatchEvaluator batchEvaluator;
+
+    // Children of a node one ply above the leaves, scored together, from the root player's point of view
+    private final long[] leafOwn = new long[Bitboard.SQUARES];
+    private final long[] leafOpponent = new long[Bitboard.SQUARES];
+    private final int[] leafScores = new int[Bitboard.SQUARES];
+
+    // Depth the current iteration searches to, at most maxDepth
+    private int depthLimit;
+
+    // Per-ply move lists, indexed by depth
+    private final int[][] moveLists;
+
+    // Packed best root move of the last search
+    private int bestMove;
+
+    // Hard deadline of a timed search, the search unwinds without storing anything once it has passed
+    private long deadlineNanos = Long.MAX_VALUE;
+    private boolean aborted;
+    private int nodesUntilTimeCheck;
+
+    // Also aborts the search when it returns true, checked along with the clock
+    private BooleanSupplier stopCondition;
+
+    // Node count after which a timed search unwinds like at the deadline
+    private long nodeLimit = Long.MAX_VALUE;
+
+    private long moveTotalNodes = 0;
+    private long movePrunedNodes = 0;
+
+    /**
+     * Creates an engine
+     *
+     * @param maxDepth  - the depth of the minimax tree
+     * @param evaluator - the static evaluation function used at the leaves
+     */
+    public Engine(int maxDepth, Evaluator evaluator) {
+        this(maxDepth, evaluator, null);
+    }
+
+    /**
+     * Creates an engine that shares search results through a hash table.  Every engine sharing a table
+     * must use the same evaluator.
+     *
+     * @param maxDepth  - the depth of the minimax tree
+     * @param evaluator - the static evaluation function used at the leaves
+     * @param table     - the hash table, or null to search without one
+     */
+    public Engine(int maxDepth, Evaluator evaluator, TranspositionTable table) {
+        this(maxDepth, evaluator, table, null);
+    }
+
+    /**
+     * Creates a selective engine.  Every engine sharing a table must use the same evaluator and selectivity.
+     *
+     * @param maxDepth  - the depth of the minimax tree
+     * @param evaluator - the static evaluation function used at the leaves
+     * @param table     - the hash table, or null to search without one
+     * @param probCut   - the ProbCut coefficients calibrated for the evaluator, or null to search full width
+     */
+    public Engine(int maxDepth, Evaluator evaluator, TranspositionTable table, ProbCut probCut) {
+        this.maxDepth = maxDepth;
+        this.evaluator = evaluator;
+        this.table = table;
+        this.probCut = probCut;
+        this.moveLists = new int[maxDepth + 1][Bitboard.SQUARES];
+        setBatchLeafEvaluation(ReversiConstants.BATCH_LEAF_EVALUATION);
+    }
+
+    /**
+     * Turns batched leaf evaluation on or off.  When on and the evaluator implements {@link BatchEvaluator},
+     * the children of a node one ply above the leaves are scored in one batch once the eldest didn't cut off.
+     *
+     * @param enabled - true to score frontier children in batches
+     */
+    public void setBatchLeafEvaluation(boolean enabled) {
+        batchEvaluator = enabled && evaluator instanceof BatchEvaluator ? (BatchEvaluator) evaluator : null;
+    }
+
+    /**
+     * Sets a condition that aborts the searches of the engine, e.g. once nobody is waiting for the result.  An
+     * aborted search returns the best move of its last completed iteration, an aborted analysis is meaningless.
+     *
+     * @param stopCondition - aborts the search once it returns true, null to only stop on the clock
+     */
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    /**
+     * Gets the engine configured for the given player.  White uses the regular evaluation and black
+     * uses the second one, so two computer players can be tweaked independently
+     *
+     * @param player - the player the engine will move for
+     * @return - a new engine
+     */
+    public static Engine forPlayer(Piece player) {
+        return forPlayer(player, null);
+    }
+
+    /**
+     * Gets the engine configured for the given player, sharing search results through a hash table
+     *
+     * @param player - the player the engine will move for
+     * @param table  - the hash table for this player's engine, or null to search without one
+     * @return - a new engine
+     */
+    public static Engine forPlayer(Piece player, TranspositionTable table) {
+        if (player.equals(Piece.BLACK)) {
+            return forPlayer(player, table, ReversiConstants.MINIMAX_DEPTH_BLACK_PIECE);
+        }
+        return forPlayer(player, table, ReversiConstants.MINIMAX_DEPTH_WHITE_PIECE);
+    }
+
+    /**
+     * Gets the engine configured for the given player with a different depth, e.g. the maximum depth
+     * of a timed search
+     *
+     * @param player   - the player the engine will move for
+     * @param table    - the hash table for this player's engine, or null to search without one
+     * @param maxDepth - the depth of the minimax tree
+     * @return - a new engine
+     */
+    public static Engine forPlayer(Piece player, TranspositionTable table, int maxDepth) {
+        if (player.equals(Piece.BLACK)) {
+            return new Engine(maxDepth, Evaluation::staticEvaluationTwo, table,
+                    ProbCut.load("staticEvaluationTwo", ReversiConstants.SELECTIVITY));
+        }
+        return new Engine(maxDepth, Evaluation::staticEvaluation, table,
+                ProbCut.load("staticEvaluation", ReversiConstants.SELECTIVITY));
+    }
+
+    /**
+     * Searches for the best move for the player.  The board passed in is not modified.
+     *
+     * @param board  - the current game board
+     * @param player - the player to move
+     * @return - the best move found, row and column are -1 if the player has no valid move
+     */
+    public Move findBestMove(Piece[][] board, Piece player) {
+        moveTotalNodes = 0;
+        movePrunedNodes = 0;
+        depthLimit = maxDepth;
+        deadlineNanos = Long.MAX_VALUE;
+        nodeLimit = Long.MAX_VALUE;
+        aborted = false;
+
+        long own = Bitboard.fromBoard(board, player);
+        long opponent = Bitboard.fromBoard(board, Board.getOpposite(player));
+
+        int score = minimax(0, true, own, opponent, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        int square = Move.square(bestMove);
+        if (square == Move.NO_SQUARE) {
+            return new Move(score, -1, -1);
+        }
+        return new Move(score, square / SIZE, square % SIZE);
+    }
+
+    /**
+     * Searches for the best move by iterative deepening up to the engine's depth, for as long as the
+     * time manager allows.  The board passed in is not modified.
+     * <p>
+     * The first root move of each iteration is the previous best, the others are searched with a window
+     * just below its score, which is enough to tell whether any of them comes close.
+     *
+     * @param board       - the current game board
+     * @param player      - the player to move
+     * @param timeManager - the time plan for this move
+     * @return - the best move of the deepest completed iteration, row and column are -1 if the player has
+     * no valid move
+     */
+    public Move findBestMove(Piece[][] board, Piece player, TimeManager timeManager) {
+        return findBestMove(board, player, timeManager, null);
+    }
+
+    /**
+     * Searches for the best move by iterative deepening like {@link #findBestMove(Piece[][], Piece, TimeManager)},
+     * reporting every completed iteration
+     *
+     * @param board       - the current game board
+     * @param player      - the player to move
+     * @param timeManager - the time plan for this move
+     * @param listener    - receives the best move after every iteration, may be null
+     * @return - the best move of the deepest completed iteration, row and column are -1 if the player has
+     * no valid move
+     */
+    public Move findBestMove(Piece[][] board, Piece player, TimeManager timeManager, IterationListener listener) {
+        moveTotalNodes = 0;
+        movePrunedNodes = 0;
+        timeManager.start();
+        deadlineNanos = timeManager.deadlineNanos();
+        nodeLimit = timeManager.nodeLimit();
+        aborted = false;
+        nodesUntilTimeCheck = TIME_CHECK_NODES;
+
+        long own = Bitboard.fromBoard(board, player);
+        long opponent = Bitboard.fromBoard(board, Board.getOpposite(player));
+
+        int empties = Bitboard.SQUARES - Long.bitCount(own | opponent);
+
+        int[] rootMoves = new int[Bitboard.SQUARES];
+        int rootMoveCount = generateMoves(Bitboard.validMoves(own, opponent), rootMoves, Move.NO_SQUARE);
+        if (rootMoveCount == 0) {
+            return new Move(evaluator.evaluate(own, opponent), -1, -1);
+        }
+
+        // With one valid move there is nothing to think about, a one ply search just gives it a score
+        int bestSquare = rootMoves[0];
+        if (rootMoveCount == 1) {
+            long flipped = Bitboard.flips(own, opponent, bestSquare);
+            depthLimit = 1;
+            moveTotalNodes++;
+            int score = minimax(1, false, opponent & ~flipped, own | flipped | 1L << bestSquare,
+                    Integer.MIN_VALUE, Integer.MAX_VALUE);
+            Move move = new Move(score, bestSquare / SIZE, bestSquare % SIZE);
+            if (listener != null) {
+                listener.onIteration(depthLimit, move, moveTotalNodes);
+            }
+            deadlineNanos = Long.MAX_VALUE;
+            nodeLimit = Long.MAX_VALUE;
+            return move;
+        }
+        int bestScore = 0;
+
+        for (depthLimit = 1; depthLimit <= maxDepth; depthLimit++) {
+            int iterationSquare = Move.NO_SQUARE;
+            int iterationScore = Integer.MIN_VALUE;
+            int secondScore = Integer.MIN_VALUE;
+
+            for (int i = 0; i < rootMoveCount && !aborted; i++) {
+                int square = rootMoves[i];
+                long flipped = Bitboard.flips(own, opponent, square);
+                moveTotalNodes++;
+
+                int alpha = i == 0 ? Integer.MIN_VALUE : iterationScore - DOMINANCE_MARGIN;
+                int score = minimax(1, false, opponent & ~flipped, own | flipped | 1L << square,
+                        alpha, Integer.MAX_VALUE);
+
+                if (aborted) {
+                    break;
+                }
+                if (score > iterationScore) {
+                    secondScore = iterationScore;
+                    iterationScore = score;
+                    iterationSquare = square;
+                } else {
+                    secondScore = Math.max(secondScore, score);
+                }
+            }
+
+            // An unfinished iteration is thrown away
+            if (aborted) {
+                break;
+            }
+
+            bestSquare = iterationSquare;
+            bestScore = iterationScore;
+
+            // Search the best move first in the next iteration
+            for (int i = 0; i < rootMoveCount; i++) {
+                if (rootMoves[i] == bestSquare) {
+                    rootMoves[i] = rootMoves[0];
+                    rootMoves[0] = bestSquare;
+                }
+            }
+
+            if (listener != null) {
+                listener.onIteration(depthLimit, new Move(bestScore, bestSquare / SIZE, bestSquare % SIZE),
+                        moveTotalNodes);
+            }
+
+            // Once the search reaches the end of the game a deeper one can't change anything
+            if (depthLimit >= empties) {
+                break;
+            }
+
+            boolean dominant = secondScore <= bestScore - DOMINANCE_MARGIN;
+            if (!timeManager.startNextIteration(depthLimit, bestSquare, bestScore, dominant)) {
+                break;
+            }
+        }
+
+        deadlineNanos = Long.MAX_VALUE;
+        nodeLimit = Long.MAX_VALUE;
+        return new Move(bestScore, bestSquare / SIZE, bestSquare % SIZE);
+    }
+
+    /**
+     * Ranks every valid move of the player by iterative deepening up to the engine's depth.
+     * <p>
+     * The best {@code topMoves} moves get exact scores, every other move is only proven to be no better
+     * than the worst of those and gets an upper bound.  With ProbCut, scores of an iteration that doesn't reach
+     * the end of the game are marked selective.  Each iteration is reported to the listener, and the hash table
+     * (if any) carries the move ordering and principal variations from one iteration to the next.
+     *
+     * @param board    - the current game board, not modified
+     * @param player   - the player to move
+     * @param topMoves - how many moves get exact scores, at least 1 and at most every valid move
+     * @param listener - receives the ranking after every iteration, may be null
+     * @return - every valid move, best first, empty if the player has no valid move
+     */
+    public List<AnalyzedMove> analyze(Piece[][] board, Piece player, int topMoves, AnalysisListener listener) {
+        moveTotalNodes = 0;
+        movePrunedNodes = 0;
+        deadlineNanos = Long.MAX_VALUE;
+        nodeLimit = Long.MAX_VALUE;
+        aborted = false;
+
+        long own = Bitboard.fromBoard(board, player);
+        long opponent = Bitboard.fromBoard(board, Board.getOpposite(player));
+
+        // Root moves, re-ordered by the previous iteration's ranking
+        int[] rootMoves = new int[Bitboard.SQUARES];
+        int rootMoveCount = generateMoves(Bitboard.validMoves(own, opponent), rootMoves, Move.NO_SQUARE);
+        int exactMoves = Math.max(1, Math.min(topMoves, rootMoveCount));
+        int empties = Bitboard.SQUARES - Long.bitCount(own | opponent);
+
+        List<AnalyzedMove> ranking = new ArrayList<>();
+        for (depthLimit = 1; depthLimit <= maxDepth && rootMoveCount > 0; depthLimit++) {
+            ranking = new ArrayList<>();
+            List<Integer> exactScores = new ArrayList<>();
+            boolean selective = probCut != null && depthLimit < empties;
+
+            for (int i = 0; i < rootMoveCount; i++) {
+                int square = rootMoves[i];
+                long flipped = Bitboard.flips(own, opponent, square);
+                long childPlayer = opponent & ~flipped;
+                long childOpponent = own | flipped | 1L << square;
+                moveTotalNodes++;
+
+                // Once exactMoves exact scores are known, only a move beating the worst of them needs one
+                int alpha = Integer.MIN_VALUE;
+                if (exactScores.size() >= exactMoves) {
+                    alpha = exactScores.get(exactScores.size() - exactMoves);
+                }
+
+                int score = minimax(1, false, childPlayer, childOpponent, alpha, Integer.MAX_VALUE);
+                boolean exact = score > alpha;
+                if (exact) {
+                    exactScores.add(score);
+                    Collections.sort(exactScores);
+                }
+
+                ranking.add(new AnalyzedMove(square / SIZE, square % SIZE, score, exact, selective, depthLimit,
+                        principalVariation(square, childPlayer, childOpponent)));
+            }
+
+            // Exact scores before bounds, then best first
+            ranking.sort((a, b) -> a.isExact() != b.isExact()
+                    ? (a.isExact() ? -1 : 1)
+                    : Integer.compare(b.getScore(), a.getScore()));
+
+            for (int i = 0; i < rootMoveCount; i++) {
+                rootMoves[i] = ranking.get(i).getRow() * SIZE + ranking.get(i).getColumn();
+            }
+
+            if (listener != null) {
+                listener.onIteration(depthLimit, Collections.unmodifiableList(ranking));
+            }
+        }
+
+        return ranking;
+    }
+
+    /**
+     * Searches a node inside a larger search to a fixed depth below it, e.g. a subtree of the parallel search.
+     * The node is not a root: a player without a valid move passes, and the hash table may cut it off.
+     *
+     * @param depth         - plies to search below the node, less than the engine's depth
+     * @param isMax         - if the node is a max node of the larger search
+     * @param player        - pieces of the player to move
+     * @param opponent      - pieces of the other player
+     * @param alpha         - the alpha score for alpha-beta pruning
+     * @param beta          - the beta score for alpha-beta pruning
+     * @param stopCondition - aborts the search once it returns true, may be null
+     * @return - the minimax score, meaningless if the search was aborted
+     */
+    int searchSubtree(int depth, boolean isMax, long player, long opponent, int alpha, int beta,
+                      BooleanSupplier stopCondition) {
+        moveTotalNodes = 0;
+        movePrunedNodes = 0;
+        depthLimit = depth + 1;
+        deadlineNanos = Long.MAX_VALUE;
+        nodeLimit = Long.MAX_VALUE;
+        aborted = false;
+        nodesUntilTimeCheck = TIME_CHECK_NODES;
+        this.stopCondition = stopCondition;
+
+        int score = minimax(1, isMax, player, opponent, alpha, beta);
+        this.stopCondition = null;
+        return score;
+    }
+
+    /**
+     * Follows the best moves stored in the hash table from the position after a root move
+     *
+     * @param rootMove - the root move square index
+     * @param player   - pieces of the player to move after the root move
+     * @param opponent - pieces of their opponent
+     * @return - square indices of the line, starting with the root move
+     */
+    private int[] principalVariation(int rootMove, long player, long opponent) {
+        List<Integer> line = new ArrayList<>();
+        line.add(rootMove);
+
+        while (table != null && line.size() < depthLimit) {
+            long moves = Bitboard.validMoves(player, opponent);
+            if (moves == 0) {
+                // A pass, the line goes on with the other player if they can move
+                if (!Bitboard.hasMove(opponent, player)) {
+                    break;
+                }
+                long swap = player;
+                player = opponent;
+                opponent = swap;
+                continue;
+            }
+
+            long entry = table.probe(TranspositionTable.hash(player, opponent));
+            int square = TranspositionTable.bestMove(entry);
+            if (entry == 0 || square < 0 || (moves & 1L << square) == 0) {
+                break;
+            }
+            line.add(square);
+
+            long flipped = Bitboard.flips(player, opponent, square);
+            long next = opponent & ~flipped;
+            opponent = player | flipped | 1L << square;
+            player = next;
+        }
+
+        int[] principalVariation = new int[line.size()];
+        for (int i = 0; i < principalVariation.length; i++) {
+            principalVariation[i] = line.get(i);
+        }
+        return principalVariation;
+    }
+
+    /**
+     * Gets the number of nodes visited by the last search
+     *
+     * @return - the number of nodes visited
+     */
+    public long getMoveTotalNodes() {
+        return moveTotalNodes;
+    }
+
+    /**
+     * Gets the number of nodes pruned by the last search
+     *
+     * @return - the number of nodes pruned
+     */
+    public long getMovePrunedNodes() {
+        return movePrunedNodes;
+    }
+
+    /**
+     * Gets the depth of the minimax tree
+     *
+     * @return - the search depth
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Recursive minimax function.  Children are made by copying the two bitboards and move lists live in
+     * per-ply buffers, so no objects are created per node.  A player without a valid move passes, the game
+     * only ends when neither player can move.
+     *
+     * @param depth    - current depth of the tree
+     * @param isMax    - if we're maximizing the tree currently
+     * @param player   - pieces of the current moving player
+     * @param opponent - pieces of the other player
+     * @param alpha    - the alpha score for alpha-beta pruning
+     * @param beta     - the beta score for alpha-beta pruning
+     * @return - the minimax score; at the root the best move is left in bestMove
+     */
+    private int minimax(int depth, boolean isMax, long player, long opponent, int alpha, int beta) {
+
+        // Out of time, unwind without trusting or storing anything
+        if (aborted || (--nodesUntilTimeCheck <= 0 && outOfTime())) {
+            return 0;
+        }
+
+        // If we've reached out depth, then return the static evaluation function
+        if (depth == depthLimit) {
+            return evaluate(evaluator, isMax, player, opponent);
+        }
+
+        long moveMask = Bitboard.validMoves(player, opponent);
+
+        // If no possible moves, pass if the other player can move, otherwise the game is over
+        if (moveMask == 0) {
+            int score = noMoveScore(evaluator, depth, isMax, player, opponent);
+            if (score == PASS) {
+                return minimax(depth, !isMax, opponent, player, alpha, beta);
+            }
+            if (depth == 0) {
+                bestMove = Move.pack(0, Move.NO_SQUARE);
+            }
+            return score;
+        }
+
+        int alphaOriginal = alpha;
+        int betaOriginal = beta;
+        long hash = 0;
+        int hashMove = Move.NO_SQUARE;
+
+        // Use a stored result if it was searched deep enough, otherwise just its best move for ordering
+        if (table != null) {
+            hash = TranspositionTable.hash(player, opponent);
+            long entry = table.probe(hash);
+            if (entry != 0) {
+                hashMove = TranspositionTable.bestMove(entry);
+                int score = depth > 0 ? storedScore(entry, depthLimit - depth, isMax, alpha, beta) : NO_SCORE;
+                if (score != NO_SCORE) {
+                    return score;
+                }
+            }
+        }
+
+        // Cut if shallow searches show the deep one will very probably end outside the window.  Not once the
+        // search reaches the end of the game, an endgame solve has to stay exact.
+        if (probCut != null && depth > 0 && depthLimit - depth >= ProbCut.MIN_DEEP_DEPTH
+                && depthLimit - depth < Bitboard.SQUARES - Long.bitCount(player | opponent)) {
+            int cut = probableCut(depth, isMax, player, opponent, alpha, beta);
+            if (cut != NO_CUT) {
+                return cut;
+            }
+        }
+
+        // Find children (valid moves) of the current position
+        int[] moves = moveLists[depth];
+        int moveCount = generateMoves(moveMask, moves, hashMove);
+
+        // Default move values
+        int bestScore = isMax ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int bestSquare = Move.NO_SQUARE;
+        moveTotalNodes += moveCount;
+
+        // One ply above the leaves the children may be scored in batches
+        boolean frontier = batchEvaluator != null && depth == depthLimit - 1;
+
+        // Go through every valid board move
+        for (int i = 0; i < moveCount; i++) {
+            int square = moves[i];
+            int score;
+            if (frontier && i > 0) {
+                // The eldest child didn't cut off, so its younger brothers are scored together
+                if (i == 1) {
+                    evaluateYoungerChildren(isMax, player, opponent, moves, moveCount);
+                }
+                score = leafScores[i - 1];
+            } else {
+                long flipped = Bitboard.flips(player, opponent, square);
+
+                // Switch player
+                score = minimax(depth + 1, !isMax, opponent & ~flipped, player | flipped | 1L << square, alpha, beta);
+            }
+
+            // Maximize / minimize as necessary
+            if (isMax) {
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestSquare = square;
+                    alpha = Math.max(alpha, bestScore);
+                }
+            } else {
+                if (score < bestScore) {
+                    bestScore = score;
+                    bestSquare = square;
+                    beta = Math.min(beta, bestScore);
+                }
+            }
+
+            // Alpha beta pruning
+            if (beta <= alpha) {
+                movePrunedNodes += (moveCount - 1 - i);
+                break;
+            }
+        }
+
+        if (aborted) {
+            return 0;
+        }
+
+        if (table != null) {
+            storeResult(table, hash, depthLimit - depth, isMax, bestScore, bestSquare, alphaOriginal, betaOriginal);
+        }
+
+        if (depth == 0) {
+            bestMove = Move.pack(bestScore, bestSquare);
+        }
+        return bestScore;
+
+    }
+
+    /**
+     * Multi-ProbCut.  Each calibrated shallow depth, cheapest first, is searched with a null window around the
+     * shallow score that predicts a deep score outside the window with the configured confidence.  The shallow
+     * searches index the per-ply buffers past this node's depth, which no ancestor is using.
+     *
+     * @param depth    - current depth of the tree
+     * @param isMax    - if we're maximizing the tree currently
+     * @param player   - pieces of the current moving player
+     * @param opponent - pieces of the other player
+     * @param alpha    - the alpha score of the node
+     * @param beta     - the beta score of the node
+     * @return - the window bound to return, or NO_CUT if the node has to be searched
+     */
+    private int probableCut(int depth, boolean isMax, long player, long opponent, int alpha, int beta) {
+        int deep = depthLimit - depth;
+        int empties = Bitboard.SQUARES - Long.bitCount(player | opponent);
+
+        // The regressions are relative to the player to move
+        boolean hasAlpha = isMax ? alpha != Integer.MIN_VALUE : beta != Integer.MAX_VALUE;
+        boolean hasBeta = isMax ? beta != Integer.MAX_VALUE : alpha != Integer.MIN_VALUE;
+        int moverAlpha = isMax ? alpha : -beta;
+        int moverBeta = isMax ? beta : -alpha;
+
+        for (int check = 0; check < ProbCut.checks(); check++) {
+            int shallow = ProbCut.shallowDepth(deep, check);
+            if (shallow == 0 || !probCut.isCalibrated(empties, deep, check)) {
+                continue;
+            }
+
+            if (hasBeta) {
+                int bound = probCut.highBound(empties, deep, check, moverBeta);
+                if (moverScore(isMax, shallowSearch(depth, shallow, isMax, player, opponent, bound)) >= bound) {
+                    return isMax ? beta : alpha;
+                }
+            }
+            if (hasAlpha) {
+                int bound = probCut.lowBound(empties, deep, check, moverAlpha) + 1;
+                if (moverScore(isMax, shallowSearch(depth, shallow, isMax, player, opponent, bound)) < bound) {
+                    return isMax ? alpha : beta;
+                }
+            }
+            if (aborted) {
+                return 0;
+            }
+        }
+        return NO_CUT;
+    }
+
+    /**
+     * Null window search of a node to a shallower depth, telling whether the player to move reaches a score
+     *
+     * @param depth    - current depth of the tree
+     * @param shallow  - depth to search below the node
+     * @param isMax    - if we're maximizing the tree currently
+     * @param player   - pieces of the current moving player
+     * @param opponent - pieces of the other player
+     * @param bound    - the score, relative to the player to move
+     * @return - the root relative score, at least bound (for the player to move) if they reach it
+     */
+    private int shallowSearch(int depth, int shallow, boolean isMax, long player, long opponent, int bound) {
+        if (isMax) {
+            return minimax(depthLimit - shallow, true, player, opponent, bound - 1, bound);
+        }
+        return minimax(depthLimit - shallow, false, player, opponent, -bound, -bound + 1);
+    }
+
+    /**
+     * Converts a root relative score to the point of view of the player to move
+     *
+     * @param isMax - if the node is a max node
+     * @param score - the root relative score
+     * @return - the score for the player to move
+     */
+    private static int moverScore(boolean isMax, int score) {
+        return isMax ? score : -score;
+    }
+
+    /**
+     * Scores every child but the first of a node one ply above the leaves into leafScores, relative to the root
+     * player.  The score of moves[i] ends up at leafScores[i - 1].
+     *
+     * @param isMax     - if the node is a max node
+     * @param player    - pieces of the player to move
+     * @param opponent  - pieces of the other player
+     * @param moves     - the valid moves
+     * @param moveCount - the number of valid moves
+     */
+    private void evaluateYoungerChildren(boolean isMax, long player, long opponent, int[] moves, int moveCount) {
+        for (int i = 1; i < moveCount; i++) {
+            long flipped = Bitboard.flips(player, opponent, moves[i]);
+            long mover = player | flipped | 1L << moves[i];
+            long other = opponent & ~flipped;
+            leafOwn[i - 1] = isMax ? mover : other;
+            leafOpponent[i - 1] = isMax ? other : mover;
+        }
+        batchEvaluator.evaluate(leafOwn, leafOpponent, moveCount - 1, leafScores);
+        nodesUntilTimeCheck -= moveCount - 1;
+    }
+
+    /**
+     * Static evaluation relative to the player to move at the root
+     *
+     * @param evaluator - the static evaluation function
+     * @param isMax     - if the node is a max node, where the player to move is the root player
+     * @param player    - pieces of the player to move
+     * @param opponent  - pieces of the other player
+     * @return - the static evaluation
+     */
+    static int evaluate(Evaluator evaluator, boolean isMax, long player, long opponent) {
+        return isMax ? evaluator.evaluate(player, opponent) : evaluator.evaluate(opponent, player);
+    }
+
+    /**
+     * Scores a node whose player has no valid move.  Below the root the player passes if the opponent can
+     * move, otherwise the game is over.  The root doesn't pass, the caller does that.  A finished game counts
+     * the empty squares for the winner, as in tournament scoring, on top of the static evaluation.
+     *
+     * @param evaluator - the static evaluation function
+     * @param depth     - current depth of the tree
+     * @param isMax     - if the node is a max node
+     * @param player    - pieces of the player to move
+     * @param opponent  - pieces of the other player
+     * @return - PASS if the player passes, otherwise the static evaluation relative to the root player
+     */
+    static int noMoveScore(Evaluator evaluator, int depth, boolean isMax, long player, long opponent) {
+        if (Bitboard.hasMove(opponent, player)) {
+            return depth > 0 ? PASS : evaluate(evaluator, isMax, player, opponent);
+        }
+        int winnerEmpties = Bitboard.finalScore(player, opponent) - (Long.bitCount(player) - Long.bitCount(opponent));
+        return evaluate(evaluator, isMax, player, opponent) + moverScore(isMax, winnerEmpties);
+    }
+
+    /**
+     * Gets the score a hash table entry settles a node with: an exact score, or a bound outside the window
+     *
+     * @param entry     - the node's packed entry
+     * @param remaining - plies the node is searched to
+     * @param isMax     - if the node is a max node
+     * @param alpha     - the alpha score of the node
+     * @param beta      - the beta score of the node
+     * @return - the score relative to the root player, or NO_SCORE if the entry is too shallow or inside the window
+     */
+    static int storedScore(long entry, int remaining, boolean isMax, int alpha, int beta) {
+        if (TranspositionTable.depth(entry) < remaining) {
+            return NO_SCORE;
+        }
+        int score = moverScore(isMax, TranspositionTable.score(entry));
+        int bound = rootBound(TranspositionTable.bound(entry), isMax);
+        if (bound == TranspositionTable.EXACT
+                || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+            return score;
+        }
+        return NO_SCORE;
+    }
+
+    /**
+     * Stores the result of a searched node, bounded by the window it was searched with
+     *
+     * @param table         - the hash table
+     * @param hash          - the node's position hash
+     * @param remaining     - plies the node was searched to
+     * @param isMax         - if the node is a max node
+     * @param bestScore     - the node's score, relative to the root player
+     * @param bestSquare    - the best move, or NO_SQUARE
+     * @param alphaOriginal - the alpha score the node was searched with
+     * @param betaOriginal  - the beta score the node was searched with
+     */
+    static void storeResult(TranspositionTable table, long hash, int remaining, boolean isMax, int bestScore,
+                            int bestSquare, int alphaOriginal, int betaOriginal) {
+        int bound = TranspositionTable.EXACT;
+        if (bestScore <= alphaOriginal) {
+            bound = TranspositionTable.UPPER_BOUND;
+        } else if (bestScore >= betaOriginal) {
+            bound = TranspositionTable.LOWER_BOUND;
+        }
+        table.store(hash, remaining, moverScore(isMax, bestScore), rootBound(bound, isMax), bestSquare);
+    }
+
+    /**
+     * Checks the clock, the node limit and the stop condition, called every TIME_CHECK_NODES nodes
+     *
+     * @return - true if the hard deadline or the node limit has passed, or the search was stopped
+     */
+    private boolean outOfTime() {
+        nodesUntilTimeCheck = TIME_CHECK_NODES;
+        aborted = System.nanoTime() > deadlineNanos || moveTotalNodes >= nodeLimit
+                || (stopCondition != null && stopCondition.getAsBoolean());
+        return aborted;
+    }
+
+    /**
+     * Fills a move list from a mask of valid moves
+     *
+     * @param moveMask - the valid moves
+     * @param moves    - receives the square indices of the valid moves
+     * @param hashMove - square to put first in the list, or NO_SQUARE
+     * @return - the number of valid moves
+     */
+    static int generateMoves(long moveMask, int[] moves, int hashMove) {
+        int moveCount = 0;
+        for (; moveMask != 0; moveMask &= moveMask - 1) {
+            moves[moveCount] = Long.numberOfTrailingZeros(moveMask);
+
+            // The hash table's best move goes first
+            if (moves[moveCount] == hashMove) {
+                moves[moveCount] = moves[0];
+                moves[0] = hashMove;
+            }
+            moveCount++;
+        }
+        return moveCount;
+    }
+
+    /**
+     * Converts a bound between the root player's point of view and the point of view of the player to move.
+     * The two are the same at max nodes and flipped at min nodes, where the score is negated.
+     *
+     * @param bound - the bound type
+     * @param isMax - if the node is a max node
+     * @return - the bound type from the other point of view
+     */
+    static int rootBound(int bound, boolean isMax) {
+        if (isMax || bound == TranspositionTable.EXACT) {
+            return bound;
+        }
+        return bound == TranspositionTable.LOWER_BOUND
+                ? TranspositionTable.UPPER_BOUND
+                : TranspositionTable.LOWER_BOUND;
+    }
+}
@@ -0,0 +1,69 @@
+package game;
+
+/**
+ * Static evaluation functions used by the search.  Positions are bitboards, see {@link Bitboard}.
+ */
+public final class Evaluation {
+
+    private Evaluation() {
+    }
+
+    /**
+     * Static evaluation function which counts the pieces of the current player vs the other player's pieces
+     *
+     * @param own      - the current player's pieces
+     * @param opponent - the other player's pieces
+     * @return (total current player pieces - total opposite player pieces)
+     */
+    static int staticEvaluation_CountPieces(long own, long opponent) {
+        return Long.bitCount(own) - Long.bitCount(opponent);
+    }
+
+    /**
+     * Static evaluation function which counts the number of corners a player has compared to the other player
+     *
+     * @param own      - the current player's pieces
+     * @param opponent - the other player's pieces
+     * @return (total corners held - total corners held by opponent)
+     */
+    static int staticEvaluation_CheckCorners(long own, long opponent) {
+        return Long.bitCount(own & Bitboard.CORNERS) - Long.bitCount(opponent & Bitboard.CORNERS);
+    }
+
+    /**
+     * Static evaluation function for how many potential moves a player has based on current board state
+     *
+     * @param own      - the current player's pieces
+     * @param opponent - the other player's pieces
+     * @return - (potential moves of current player - potential moves of opponent)
+     */
+    static int staticEvaluation_CheckPotentialMoves(long own, long opponent) {
+        return Bitboard.moveCount(own, opponent) - Bitboard.moveCount(opponent, own);
+    }
+
+    /**
+     * White Piece static evaluation function
+     *
+     * @param own      - the pieces of the player the score is relative to
+     * @param opponent - the other player's pieces
+     * @return - a static evaluation integer based on current board state
+     */
+    public static int staticEvaluation(long own, long opponent) {
+        return staticEvaluation_CountPieces(own, opponent) +
+                0*staticEvaluation_CheckCorners(own, opponent) +
+                0*staticEvaluation_CheckPotentialMoves(own, opponent);
+    }
+
+    /**
+     * Black Piece static evaluation function
+     *
+     * @param own      - the pieces of the player the score is relative to
+     * @param opponent - the other player's pieces
+     * @return - a static evaluation integer based on current board state
+     */
+    public static int staticEvaluationTwo(long own, long opponent) {
+        return staticEvaluation_CountPieces(own, opponent) +
+                10*staticEvaluation_CheckCorners(own, opponent) +
+                0*staticEvaluation_CheckPotentialMoves(own, opponent);
+    }
+}
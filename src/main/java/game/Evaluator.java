@@ -0,0 +1,16 @@
+package game;
+
+/**
+ * A static evaluation function used at the leaves of the search
+ */
+public interface Evaluator {
+
+    /**
+     * Scores a position from the point of view of one player
+     *
+     * @param own      - bitboard of the pieces of the player the score is relative to
+     * @param opponent - bitboard of the other player's pieces
+     * @return - a static evaluation integer based on current board state
+     */
+    int evaluate(long own, long opponent);
+}
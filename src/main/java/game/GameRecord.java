@@ -0,0 +1,170 @@
+package game;
+
+import constants.Piece;
+
+/**
+ * A finished game in the compact record format, one line per game:
+ * <pre>
+ * black-engine white-engine opening-moves score transcript
+ * </pre>
+ * The engines are config names without spaces, the opening moves are the number of moves of the transcript
+ * that were given rather than chosen by the engines, the score is black's pieces minus white's at the end
+ * with the empty squares counted for the winner (as the engine scores finished games), and the transcript is
+ * every move as a square name from the start position (e.g. f5d6c3).  Passes are not written, a pass is
+ * wherever the side to move has no valid move.
+ */
+public class GameRecord {
+
+    private static final int BOARD_SIZE = 8;
+
+    private final String blackEngine;
+    private final String whiteEngine;
+    private final int openingMoves;
+    private final int score;
+    private final int[] moves;
+
+    /**
+     * Creates a record
+     *
+     * @param blackEngine  - config name of the engine playing black
+     * @param whiteEngine  - config name of the engine playing white
+     * @param openingMoves - number of given moves at the start of the game
+     * @param score        - black's final score, see {@link Bitboard#finalScore(long, long)}
+     * @param moves        - square indices of the moves, row * 8 + column
+     */
+    public GameRecord(String blackEngine, String whiteEngine, int openingMoves, int score, int[] moves) {
+        this.blackEngine = blackEngine;
+        this.whiteEngine = whiteEngine;
+        this.openingMoves = openingMoves;
+        this.score = score;
+        this.moves = moves;
+    }
+
+    /**
+     * Parses a record line
+     *
+     * @param line - the line
+     * @return - the record
+     * @throws IllegalArgumentException - if the line is not a record
+     */
+    public static GameRecord parse(String line) {
+        String[] fields = line.trim().split("\\s+");
+        if (fields.length < 4 || fields.length > 5) {
+            throw new IllegalArgumentException("expected 5 fields: " + line);
+        }
+        try {
+            return new GameRecord(fields[0], fields[1], Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                    parseTranscript(fields.length == 5 ? fields[4] : ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad number in record: " + line);
+        }
+    }
+
+    /**
+     * Formats the record as one line
+     *
+     * @return - the record line
+     */
+    public String toLine() {
+        return blackEngine + " " + whiteEngine + " " + openingMoves + " " + score + " "
+                + (moves.length == 0 ? "-" : transcript(moves));
+    }
+
+    /**
+     * Writes moves as square names run together
+     *
+     * @param moves - square indices
+     * @return - the transcript
+     */
+    public static String transcript(int[] moves) {
+        StringBuilder transcript = new StringBuilder();
+        for (int move : moves) {
+            transcript.append(Board.squareName(move / BOARD_SIZE, move % BOARD_SIZE));
+        }
+        return transcript.toString();
+    }
+
+    /**
+     * Reads a transcript of square names run together, "-" being an empty one
+     *
+     * @param transcript - the transcript
+     * @return - square indices of the moves
+     * @throws IllegalArgumentException - if a move is not a square
+     */
+    public static int[] parseTranscript(String transcript) {
+        if (transcript.equals("-")) {
+            return new int[0];
+        }
+        if (transcript.length() % 2 != 0) {
+            throw new IllegalArgumentException("odd transcript length: " + transcript);
+        }
+        int[] moves = new int[transcript.length() / 2];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = Board.parseSquare(transcript.substring(2 * i, 2 * i + 2), BOARD_SIZE);
+            if (moves[i] < 0) {
+                throw new IllegalArgumentException("not a square: " + transcript.substring(2 * i, 2 * i + 2));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Plays moves from the start position, passing wherever the side to move has no valid move
+     *
+     * @param moves - square indices of the moves
+     * @param count - how many of the moves to play
+     * @param board - receives the position, must hold the start position
+     * @return - the player to move after the moves
+     * @throws IllegalArgumentException - if a move is not valid
+     */
+    public static Piece replay(int[] moves, int count, Piece[][] board) {
+        Piece player = Piece.BLACK;
+        for (int i = 0; i < count; i++) {
+            player = sideToMove(board, player);
+            long valid = Bitboard.validMoves(Bitboard.fromBoard(board, player),
+                    Bitboard.fromBoard(board, Board.getOpposite(player)));
+            if ((valid & 1L << moves[i]) == 0) {
+                throw new IllegalArgumentException("move " + (i + 1) + " is not valid");
+            }
+            Board.applyMove(board, player, moves[i] / BOARD_SIZE, moves[i] % BOARD_SIZE);
+            player = Board.getOpposite(player);
+        }
+        return sideToMove(board, player);
+    }
+
+    /**
+     * Gets who moves next, the other player if the player has to pass
+     *
+     * @param board  - the position
+     * @param player - the player whose turn it is
+     * @return - the player who can move, or the player if neither can
+     */
+    public static Piece sideToMove(Piece[][] board, Piece player) {
+        long own = Bitboard.fromBoard(board, player);
+        long opponent = Bitboard.fromBoard(board, Board.getOpposite(player));
+        if (!Bitboard.hasMove(own, opponent) && Bitboard.hasMove(opponent, own)) {
+            return Board.getOpposite(player);
+        }
+        return player;
+    }
+
+    public String getBlackEngine() {
+        return blackEngine;
+    }
+
+    public String getWhiteEngine() {
+        return whiteEngine;
+    }
+
+    public int getOpeningMoves() {
+        return openingMoves;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int[] getMoves() {
+        return moves.clone();
+    }
+}
@@ -3,32 +3,24 @@ package game;
 import constants.Piece;
 import constants.ReversiConstants;
 
-import java.util.Arrays;
-
 public class GameState {
 
     private Piece currentPlayer;
     private Piece[][] board;
     private Piece computerPlayer = Piece.WHITE;
 
+    // Time left on each player's clock
+    private long blackClockMillis = ReversiConstants.GAME_CLOCK_MILLIS;
+    private long whiteClockMillis = ReversiConstants.GAME_CLOCK_MILLIS;
+
     /**
      * Holds the game state of the current game
      *
      * @param boardSize - the size of the game board
      */
     GameState(int boardSize) {
-        this.board = new Piece[boardSize][boardSize];
-
-        // Fill the board with nothing
-        for (int i = 0; i < boardSize; i++) {
-            Arrays.fill(board[i], Piece.NONE);
-        }
-
-        // Initial piece placement
-        this.board[3][3] = Piece.WHITE;
-        this.board[3][4] = Piece.BLACK;
-        this.board[4][3] = Piece.BLACK;
-        this.board[4][4] = Piece.WHITE;
+        // Empty board with the initial piece placement
+        this.board = Board.newBoard(boardSize);
 
         // Initial piece to move is BLACK, but finishTurn is called after initialization,
         // making WHITE switch to BLACK
@@ -53,6 +45,30 @@ public class GameState {
         return this.currentPlayer;
     }
 
+    /**
+     * Gets the time left on a player's clock
+     *
+     * @param player - the player
+     * @return - the remaining time in milliseconds
+     */
+    long getClock(Piece player) {
+        return player.equals(Piece.BLACK) ? blackClockMillis : whiteClockMillis;
+    }
+
+    /**
+     * Takes the time a player used for a move off their clock
+     *
+     * @param player  - the player who moved
+     * @param elapsed - the time used in milliseconds
+     */
+    void useClock(Piece player, long elapsed) {
+        if (player.equals(Piece.BLACK)) {
+            blackClockMillis -= elapsed;
+        } else {
+            whiteClockMillis -= elapsed;
+        }
+    }
+
     /**
      * Swaps the current player
      */
@@ -0,0 +1,16 @@
+package game;
+
+/**
+ * Receives the result of every completed iteration of an iterative deepening search
+ */
+public interface IterationListener {
+
+    /**
+     * Called after each completed iteration
+     *
+     * @param depth    - the depth just completed
+     * @param bestMove - the best move of the iteration and its score
+     * @param nodes    - nodes visited by the search so far
+     */
+    void onIteration(int depth, Move bestMove, long nodes);
+}
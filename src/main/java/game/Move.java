@@ -1,23 +1,20 @@
 package game;
 
-import constants.Piece;
-
+/**
+ * The move chosen by a search.  Inside the search a move is packed into an int instead,
+ * score in the high 24 bits and square index (row * size + column) in the low 8 bits, so no
+ * object is created per node.
+ */
 public class Move {
 
-    private int score;
-    private int row;
-    private int column;
-    private Piece[][] board;
+    // Square of a packed move when the player has no move
+    public static final int NO_SQUARE = -1;
 
-    public Move(int score, int row, int column) {
-        this.score = score;
-        this.row = row;
-        this.column = column;
-        this.board = null;
-    }
+    private final int score;
+    private final int row;
+    private final int column;
 
-    public Move(Piece[][] board, int score, int row, int column) {
-        this.board = board;
+    public Move(int score, int row, int column) {
         this.score = score;
         this.row = row;
         this.column = column;
@@ -27,27 +24,39 @@ public class Move {
         return score;
     }
 
-    public void setScore(int score) {
-        this.score = score;
-    }
-
     public int getRow() {
         return row;
     }
 
-    public void setRow(int row) {
-        this.row = row;
-    }
-
     public int getColumn() {
         return column;
     }
 
-    public void setColumn(int column) {
-        this.column = column;
-    }
-
-    public Piece[][] getBoard() {
-        return this.board;
+    /**
+     * Packs a score and a square into an int
+     *
+     * @param score  - the score, must fit in 24 bits
+     * @param square - the square index, or NO_SQUARE
+     * @return - the packed move
+     */
+    public static int pack(int score, int square) {
+        return score << 8 | (square & 0xff);
+    }
+
+    /**
+     * @param move - a packed move
+     * @return - the score of the packed move
+     */
+    public static int score(int move) {
+        return move >> 8;
+    }
+
+    /**
+     * @param move - a packed move
+     * @return - the square index of the packed move, or NO_SQUARE
+     */
+    public static int square(int move) {
+        int square = move & 0xff;
+        return square == 0xff ? NO_SQUARE : square;
     }
 }
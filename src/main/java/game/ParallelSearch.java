@@ -0,0 +1,325 @@
+package game;
+
+import constants.Piece;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parallel minimax with the Young Brothers Wait Concept on a ForkJoinPool.
+ * <p>
+ * At every node at least {@code splitDepth} plies above the leaves the eldest child (the hash move, if any)
+ * is searched first.  Unless it cuts off, the node becomes a split point and its younger brothers are forked
+ * as tasks that idle workers steal, each starting with the best window known when it runs.  A cutoff at a
+ * split point stops every task below it: the subtree searches poll the chain of split points along with the
+ * clock and unwind.  Below the split depth each worker searches sequentially with its own {@link Engine}.
+ * <p>
+ * Scores are relative to the root player, as in {@link Engine}, and the hash table is shared by every worker.
+ * There is no clock: a search always runs to its depth, so this is for benchmarks (see bench.ParallelBenchmark)
+ * rather than for play.
+ */
+public class ParallelSearch {
+
+    private static final int SIZE = 8;
+
+    private final int maxDepth;
+    private final int splitDepth;
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private final ForkJoinPool pool;
+
+    // The sequential engine of each worker thread, searching the subtrees below the split depth
+    private final ThreadLocal<Engine> engines;
+
+    // Depth the current iteration searches to
+    private volatile int depthLimit;
+
+    private final LongAdder nodes = new LongAdder();
+
+    /**
+     * Creates a parallel search
+     *
+     * @param maxDepth   - the depth of the minimax tree
+     * @param splitDepth - nodes with at least this many plies left are split between workers
+     * @param evaluator  - the static evaluation function used at the leaves
+     * @param table      - the hash table shared by the workers, or null to search without one
+     * @param probCut    - the ProbCut coefficients used below the split depth, or null to search full width
+     * @param pool       - the workers
+     */
+    public ParallelSearch(int maxDepth, int splitDepth, Evaluator evaluator, TranspositionTable table,
+                          ProbCut probCut, ForkJoinPool pool) {
+        this.maxDepth = maxDepth;
+        this.splitDepth = Math.max(1, splitDepth);
+        this.evaluator = evaluator;
+        this.table = table;
+        this.pool = pool;
+        this.engines = ThreadLocal.withInitial(() -> new Engine(this.splitDepth, evaluator, table, probCut));
+    }
+
+    /**
+     * Searches for the best move for the player.  With a hash table the search deepens one ply at a time so
+     * every iteration is ordered by the previous one, without one it goes straight to the engine's depth.
+     * The board passed in is not modified.
+     *
+     * @param board  - the current game board
+     * @param player - the player to move
+     * @return - the best move found, row and column are -1 if the player has no valid move
+     */
+    public Move findBestMove(Piece[][] board, Piece player) {
+        nodes.reset();
+        long own = Bitboard.fromBoard(board, player);
+        long opponent = Bitboard.fromBoard(board, Board.getOpposite(player));
+
+        int packed = Move.pack(0, Move.NO_SQUARE);
+        for (int depth = table == null ? maxDepth : 1; depth <= maxDepth; depth++) {
+            depthLimit = depth;
+            packed = pool.invoke(new RootTask(own, opponent));
+        }
+
+        int square = Move.square(packed);
+        if (square == Move.NO_SQUARE) {
+            return new Move(Move.score(packed), -1, -1);
+        }
+        return new Move(Move.score(packed), square / SIZE, square % SIZE);
+    }
+
+    /**
+     * Gets the number of nodes visited by the last search, over every worker
+     *
+     * @return - the number of nodes visited
+     */
+    public long getMoveTotalNodes() {
+        return nodes.sum();
+    }
+
+    /**
+     * Searches a node, splitting it between the workers if it's far enough from the leaves
+     *
+     * @param depth    - current depth of the tree
+     * @param isMax    - if we're maximizing the tree currently
+     * @param player   - pieces of the current moving player
+     * @param opponent - pieces of the other player
+     * @param alpha    - the alpha score for alpha-beta pruning
+     * @param beta     - the beta score for alpha-beta pruning
+     * @param parent   - the split point the node is searched under, null above the first one
+     * @return - the minimax score (packed with the best move at the root), meaningless if parent was stopped
+     */
+    private int search(int depth, boolean isMax, long player, long opponent, int alpha, int beta,
+                       SplitPoint parent) {
+
+        // Near the leaves the worker's own engine takes over
+        if (depth > 0 && depthLimit - depth < splitDepth) {
+            Engine engine = engines.get();
+            int score = engine.searchSubtree(depthLimit - depth, isMax, player, opponent, alpha, beta,
+                    parent == null ? null : parent::isStopped);
+            nodes.add(engine.getMoveTotalNodes());
+            return score;
+        }
+
+        long moveMask = Bitboard.validMoves(player, opponent);
+
+        // If no possible moves, pass if the other player can move, otherwise the game is over
+        if (moveMask == 0) {
+            int score = Engine.noMoveScore(evaluator, depth, isMax, player, opponent);
+            if (score == Engine.PASS) {
+                return search(depth, !isMax, opponent, player, alpha, beta, parent);
+            }
+            return depth == 0 ? Move.pack(score, Move.NO_SQUARE) : score;
+        }
+
+        int alphaOriginal = alpha;
+        int betaOriginal = beta;
+        long hash = 0;
+        int hashMove = Move.NO_SQUARE;
+
+        if (table != null) {
+            hash = TranspositionTable.hash(player, opponent);
+            long entry = table.probe(hash);
+            if (entry != 0) {
+                hashMove = TranspositionTable.bestMove(entry);
+                int score = depth > 0 ? Engine.storedScore(entry, depthLimit - depth, isMax, alpha, beta)
+                        : Engine.NO_SCORE;
+                if (score != Engine.NO_SCORE) {
+                    return score;
+                }
+            }
+        }
+
+        // Few nodes are this far from the leaves, so their move lists are simply allocated
+        int[] moves = new int[Long.bitCount(moveMask)];
+        int moveCount = Engine.generateMoves(moveMask, moves, hashMove);
+        nodes.add(moveCount);
+
+        // The eldest brother is searched alone, its score gives the younger ones their window
+        long flipped = Bitboard.flips(player, opponent, moves[0]);
+        int bestScore = search(depth + 1, !isMax, opponent & ~flipped, player | flipped | 1L << moves[0],
+                alpha, beta, parent);
+        int bestSquare = moves[0];
+        if (parent != null && parent.isStopped()) {
+            return 0;
+        }
+        if (isMax) {
+            alpha = Math.max(alpha, bestScore);
+        } else {
+            beta = Math.min(beta, bestScore);
+        }
+
+        if (beta > alpha && moveCount > 1) {
+            SplitPoint split = new SplitPoint(parent, isMax, alpha, beta, bestScore, bestSquare);
+            List<BrotherTask> brothers = new ArrayList<>();
+            for (int i = 1; i < moveCount; i++) {
+                brothers.add(new BrotherTask(split, depth, player, opponent, moves[i]));
+            }
+            ForkJoinTask.invokeAll(brothers);
+
+            if (parent != null && parent.isStopped()) {
+                return 0;
+            }
+            synchronized (split) {
+                bestScore = split.bestScore;
+                bestSquare = split.bestSquare;
+            }
+        }
+
+        if (table != null) {
+            Engine.storeResult(table, hash, depthLimit - depth, isMax, bestScore, bestSquare, alphaOriginal,
+                    betaOriginal);
+        }
+
+        if (depth == 0) {
+            return Move.pack(bestScore, bestSquare);
+        }
+        return bestScore;
+    }
+
+    /**
+     * A node whose younger brothers are being searched in parallel.  The window narrows as brothers finish,
+     * and once it closes the split point is cut and every search below it stops.
+     */
+    private static final class SplitPoint {
+
+        private final SplitPoint parent;
+        private final boolean isMax;
+
+        private int alpha;
+        private int beta;
+        private int bestScore;
+        private int bestSquare;
+        private volatile boolean cut = false;
+
+        SplitPoint(SplitPoint parent, boolean isMax, int alpha, int beta, int bestScore, int bestSquare) {
+            this.parent = parent;
+            this.isMax = isMax;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.bestScore = bestScore;
+            this.bestSquare = bestSquare;
+        }
+
+        /**
+         * Checks if this split point or one above it was cut
+         *
+         * @return - true if the searches below it can stop
+         */
+        boolean isStopped() {
+            for (SplitPoint split = this; split != null; split = split.parent) {
+                if (split.cut) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Records the score of a brother
+         *
+         * @param score  - the score of the brother
+         * @param square - the move leading to it
+         */
+        synchronized void update(int score, int square) {
+            if (isMax ? score > bestScore : score < bestScore) {
+                bestScore = score;
+                bestSquare = square;
+                if (isMax) {
+                    alpha = Math.max(alpha, score);
+                } else {
+                    beta = Math.min(beta, score);
+                }
+                if (beta <= alpha) {
+                    cut = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Searches one younger brother of a split point
+     */
+    private final class BrotherTask extends RecursiveAction {
+
+        // ForkJoinTask is Serializable, the tasks never are serialized
+        private static final long serialVersionUID = 1L;
+
+        private final SplitPoint split;
+        private final int depth;
+        private final long player;
+        private final long opponent;
+        private final int square;
+
+        BrotherTask(SplitPoint split, int depth, long player, long opponent, int square) {
+            this.split = split;
+            this.depth = depth;
+            this.player = player;
+            this.opponent = opponent;
+            this.square = square;
+        }
+
+        @Override
+        protected void compute() {
+            if (split.isStopped()) {
+                return;
+            }
+
+            int alpha;
+            int beta;
+            synchronized (split) {
+                alpha = split.alpha;
+                beta = split.beta;
+            }
+
+            long flipped = Bitboard.flips(player, opponent, square);
+            int score = search(depth + 1, !split.isMax, opponent & ~flipped, player | flipped | 1L << square,
+                    alpha, beta, split);
+            if (!split.isStopped()) {
+                split.update(score, square);
+            }
+        }
+    }
+
+    /**
+     * Searches the root inside the pool, so the split points can fork
+     */
+    private final class RootTask extends RecursiveTask<Integer> {
+
+        // ForkJoinTask is Serializable, the tasks never are serialized
+        private static final long serialVersionUID = 1L;
+
+        private final long player;
+        private final long opponent;
+
+        RootTask(long player, long opponent) {
+            this.player = player;
+            this.opponent = opponent;
+        }
+
+        @Override
+        protected Integer compute() {
+            return search(0, true, player, opponent, Integer.MIN_VALUE, Integer.MAX_VALUE, null);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Multi-ProbCut coefficients.  For a deep search of a given depth a few shallow searches are tried first,
+ * and the deep score is predicted from the shallow one by a linear regression fitted offline on the engine's
+ * own searches (see bench.ProbCutCalibration):
+ * <pre>
+ * deep = slope * shallow + intercept + error,  error ~ N(0, sigma)
+ * </pre>
+ * If the prediction is outside the window by more than {@code t * sigma} the node is cut without the deep
+ * search.  Coefficients are kept per game stage (empty squares / 10), deep depth and shallow depth, and are
+ * read from a resource with one "stage deep shallow slope intercept sigma" line per pair.
+ * <p>
+ * Scores are relative to the player to move.
+ */
+public class ProbCut {
+
+    // Selectivity levels 1 to 4 cut with growing confidence thresholds, level 0 turns ProbCut off
+    private static final double[] LEVEL_THRESHOLDS = {0, 2.6, 2.0, 1.5, 1.1};
+
+    public static final int STAGES = 6;
+    public static final int MAX_DEPTH = 16;
+    public static final int MIN_DEEP_DEPTH = 3;
+
+    // Shallow depths tried for each deep depth, cheapest first
+    private static final int CHECKS = 2;
+
+    private final double threshold;
+    private final double[][][] slope = new double[STAGES][MAX_DEPTH + 1][CHECKS];
+    private final double[][][] intercept = new double[STAGES][MAX_DEPTH + 1][CHECKS];
+    private final double[][][] sigma = new double[STAGES][MAX_DEPTH + 1][CHECKS];
+    private final boolean[][][] calibrated = new boolean[STAGES][MAX_DEPTH + 1][CHECKS];
+
+    /**
+     * Creates a ProbCut without any calibrated depth pair
+     *
+     * @param selectivity - selectivity level, 1 (safest) to 4 (most pruning)
+     */
+    ProbCut(int selectivity) {
+        this.threshold = LEVEL_THRESHOLDS[selectivity];
+    }
+
+    /**
+     * Loads the coefficients calibrated for an evaluation function
+     *
+     * @param evaluation  - name of the evaluation function, e.g. staticEvaluation
+     * @param selectivity - selectivity level, 0 (off) to 4 (most pruning)
+     * @return - the ProbCut, or null if the level is 0 or there are no coefficients for the evaluation
+     */
+    public static ProbCut load(String evaluation, int selectivity) {
+        if (selectivity <= 0) {
+            return null;
+        }
+
+        InputStream in = ProbCut.class.getResourceAsStream("/probcut_" + evaluation + ".txt");
+        if (in == null) {
+            return null;
+        }
+
+        ProbCut probCut = new ProbCut(Math.min(selectivity, LEVEL_THRESHOLDS.length - 1));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                probCut.set(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                        Double.parseDouble(fields[3]), Double.parseDouble(fields[4]), Double.parseDouble(fields[5]));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to read the ProbCut coefficients for " + evaluation + ", searching full width");
+            return null;
+        }
+        return probCut;
+    }
+
+    /**
+     * Gets the game stage of a position
+     *
+     * @param empties - number of empty squares
+     * @return - the stage, 0 to STAGES - 1
+     */
+    public static int stage(int empties) {
+        return Math.min(STAGES - 1, empties / 10);
+    }
+
+    /**
+     * Gets a shallow depth tried for a deep depth.  Shallow and deep depth have the same parity, so the
+     * static evaluation is always seen from the same side.
+     *
+     * @param deep  - the deep depth
+     * @param check - which check, 0 is the cheapest
+     * @return - the shallow depth, or 0 if the check doesn't exist for this depth
+     */
+    public static int shallowDepth(int deep, int check) {
+        int shallow;
+        if (check == 0) {
+            shallow = deep / 2;
+            if (shallow % 2 != deep % 2) {
+                shallow--;
+            }
+        } else {
+            shallow = deep - 2;
+            if (shallow <= shallowDepth(deep, 0)) {
+                return 0;
+            }
+        }
+        return shallow >= 1 && deep >= MIN_DEEP_DEPTH ? shallow : 0;
+    }
+
+    /**
+     * Gets the number of shallow depths tried for a deep depth
+     *
+     * @return - the number of checks
+     */
+    public static int checks() {
+        return CHECKS;
+    }
+
+    /**
+     * Sets the regression of one depth pair
+     *
+     * @param stage     - the game stage
+     * @param deep      - the deep depth
+     * @param shallow   - the shallow depth
+     * @param slope     - slope of the regression
+     * @param intercept - intercept of the regression
+     * @param sigma     - standard deviation of the error
+     */
+    void set(int stage, int deep, int shallow, double slope, double intercept, double sigma) {
+        if (stage < 0 || stage >= STAGES || deep > MAX_DEPTH) {
+            return;
+        }
+        for (int check = 0; check < CHECKS; check++) {
+            if (shallowDepth(deep, check) == shallow && shallow > 0) {
+                this.slope[stage][deep][check] = slope;
+                this.intercept[stage][deep][check] = intercept;
+                this.sigma[stage][deep][check] = sigma;
+                this.calibrated[stage][deep][check] = slope > 0;
+            }
+        }
+    }
+
+    /**
+     * Checks if a depth pair has coefficients
+     *
+     * @param empties - number of empty squares
+     * @param deep    - the deep depth
+     * @param check   - which check
+     * @return - true if the check can be tried
+     */
+    boolean isCalibrated(int empties, int deep, int check) {
+        return deep <= MAX_DEPTH && calibrated[stage(empties)][deep][check];
+    }
+
+    /**
+     * Gets the shallow score at or above which the deep search will probably fail high
+     *
+     * @param empties - number of empty squares
+     * @param deep    - the deep depth
+     * @param check   - which check
+     * @param beta    - the beta of the deep search
+     * @return - the shallow score bound
+     */
+    int highBound(int empties, int deep, int check, int beta) {
+        int stage = stage(empties);
+        return (int) Math.ceil((beta + threshold * sigma[stage][deep][check] - intercept[stage][deep][check])
+                / slope[stage][deep][check]);
+    }
+
+    /**
+     * Gets the shallow score at or below which the deep search will probably fail low
+     *
+     * @param empties - number of empty squares
+     * @param deep    - the deep depth
+     * @param check   - which check
+     * @param alpha   - the alpha of the deep search
+     * @return - the shallow score bound
+     */
+    int lowBound(int empties, int deep, int check, int alpha) {
+        int stage = stage(empties);
+        return (int) Math.floor((alpha - threshold * sigma[stage][deep][check] - intercept[stage][deep][check])
+                / slope[stage][deep][check]);
+    }
+}
@@ -6,7 +6,8 @@ import constants.ReversiConstants;
 import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
+import java.nio.file.Paths;
+import java.util.List;
 
 
 public class Reversi {
@@ -20,10 +21,18 @@ public class Reversi {
 
     private GameState state;
 
-    private int moveTotalNodes = 0;
-    private int movePrunedNodes = 0;
-    private int gameTotalNodes = 0;
-    private int gamePrunedNodes = 0;
+    // Valid moves of the current player, bit (row * BOARD_SIZE + column) is set for every yellow square
+    private long validMoveMask;
+
+    // Search results kept between moves, one table per engine configuration, made when the engine first searches
+    private TranspositionTable whiteTable;
+    private TranspositionTable blackTable;
+
+    // The analysis of the current position running in the background, cancelled once the position changes
+    private SwingWorker<Void, AnalyzedMove[]> analysis;
+
+    private long gameTotalNodes = 0;
+    private long gamePrunedNodes = 0;
 
     /**
      * Sets up the game and begins execution
@@ -104,6 +113,7 @@ public class Reversi {
 
         for (int i = 0; i < BOARD_SIZE; i++) {
             for (int j = 0; j < BOARD_SIZE; j++) {
+                boardButtons[i][j].setText(null);
                 switch (state.getBoard()[i][j]) {
                     case BLACK:
                         boardButtons[i][j].setIcon(new ImageIcon((blackPiece)));
@@ -115,13 +125,13 @@ public class Reversi {
                         boardButtons[i][j].setBackground(Color.GREEN);
                         break;
 
-                    case POSSIBLE_MOVE:
-                        boardButtons[i][j].setBackground(Color.yellow);
-                        break;
-
                     case NONE:
                         boardButtons[i][j].setIcon(null);
-                        boardButtons[i][j].setBackground(Color.GREEN);
+                        if ((validMoveMask & 1L << (i * BOARD_SIZE + j)) != 0) {
+                            boardButtons[i][j].setBackground(Color.yellow);
+                        } else {
+                            boardButtons[i][j].setBackground(Color.GREEN);
+                        }
                         break;
                 }
             }
@@ -138,19 +148,12 @@ public class Reversi {
     void attemptMove(int row, int column) {
 
         // Make sure that the location we click on is a potential valid move
-        if (!state.getBoard()[row][column].equals(Piece.POSSIBLE_MOVE)) {
+        if ((validMoveMask & 1L << (row * BOARD_SIZE + column)) == 0) {
             return;
         }
 
         // Check every direction for valid move
-        boolean validMove = checkDirection(state.getBoard(), state.getCurrentPlayer(), row, column, -1, -1, false, false);
-        validMove = checkDirection(state.getBoard(), state.getCurrentPlayer(), row, column, -1, 0, false, false) || validMove;
-        validMove = checkDirection(state.getBoard(), state.getCurrentPlayer(), row, column, -1, 1, false, false) || validMove;
-        validMove = checkDirection(state.getBoard(), state.getCurrentPlayer(), row, column, 0, 1, false, false) || validMove;
-        validMove = checkDirection(state.getBoard(), state.getCurrentPlayer(), row, column, 1, 1, false, false) || validMove;
-        validMove = checkDirection(state.getBoard(), state.getCurrentPlayer(), row, column, 1, 0, false, false) || validMove;
-        validMove = checkDirection(state.getBoard(), state.getCurrentPlayer(), row, column, 1, -1, false, false) || validMove;
-        validMove = checkDirection(state.getBoard(), state.getCurrentPlayer(), row, column, 0, -1, false, false) || validMove;
+        boolean validMove = Board.applyMove(state.getBoard(), state.getCurrentPlayer(), row, column);
 
         // Finish the player's turn if the move is over
         if (validMove) {
@@ -160,42 +163,55 @@ public class Reversi {
 
     /**
      * Called on each valid move or initial start of the board.
-     * Changes the player, clears the possible moves,
+     * Changes the player, finds the valid moves,
      * marks valid moves in yellow, draws the board, and then finally checks if the game is over
      */
     private void finishTurn() {
+        if (analysis != null) {
+            analysis.cancel(false);
+            analysis = null;
+        }
         state.changePlayer();
-        clearValidMoves(state.getBoard());
-        int validMoves = markValidMoves(state.getBoard(), state.getCurrentPlayer());
+        long own = Bitboard.fromBoard(state.getBoard(), state.getCurrentPlayer());
+        long opponent = Bitboard.fromBoard(state.getBoard(), Board.getOpposite(state.getCurrentPlayer()));
+        validMoveMask = Bitboard.validMoves(own, opponent);
         drawBoard();
 
+        if (ReversiConstants.SHOW_ANALYSIS && validMoveMask != 0) {
+            showAnalysis();
+        }
+
         // If we need to swap players because the current new player doesn't have a valid move,
         // then call finishTurn again and return from this finishTurn() call
-        if (checkFinished(validMoves)) {
+        if (checkFinished(own, opponent)) {
             finishTurn();
             return;
         }
 
         // Only AI Move
         if (ReversiConstants.NUMBER_OF_AI >= 2 || (ReversiConstants.NUMBER_OF_AI == 1 && state.isComputerPlayer())) {
-            // Reset number of visited nodes/pruned nodes for every move the ai makes
-            moveTotalNodes = 0;
-            movePrunedNodes = 0;
+            // Use two differently configured engines for tweaking parameters if we're using 2 AI/Computers to play
+            Piece enginePlayer = ReversiConstants.NUMBER_OF_AI >= 2 ? state.getCurrentPlayer() : Piece.WHITE;
+            Engine engine;
             Move bestMove;
 
-            // Create two different minimax functions for tweaking parameters if we're using 2 AI/Computers to play
-            if (ReversiConstants.NUMBER_OF_AI >= 2) {
-
-                // White Piece will call regular minimax function
-                if (state.getCurrentPlayer().equals(Piece.WHITE)) {
-                    bestMove = minimax(0, true, state.getBoard(), state.getCurrentPlayer(), Integer.MIN_VALUE, Integer.MAX_VALUE);
-                } else {
-                    bestMove = minimaxTwo(0, true, state.getBoard(), state.getCurrentPlayer(), Integer.MIN_VALUE, Integer.MAX_VALUE);
-                }
+            // Timed games search as deep as the player's clock allows, untimed games to a fixed depth
+            if (ReversiConstants.GAME_CLOCK_MILLIS > 0) {
+                engine = Engine.forPlayer(enginePlayer, tableFor(enginePlayer), ReversiConstants.MAX_SEARCH_DEPTH);
+                TimeManager timeManager = new TimeManager(state.getClock(state.getCurrentPlayer()),
+                        Board.countPieces(state.getBoard(), Piece.NONE));
+                bestMove = engine.findBestMove(state.getBoard(), state.getCurrentPlayer(), timeManager);
+                state.useClock(state.getCurrentPlayer(), timeManager.elapsedMillis());
+                System.out.println("Clock for player: " + state.getCurrentPlayer() + " is: "
+                        + state.getClock(state.getCurrentPlayer()) + " ms");
             } else {
-                bestMove = minimax(0, true, state.getBoard(), state.getCurrentPlayer(), Integer.MIN_VALUE, Integer.MAX_VALUE);
+                engine = Engine.forPlayer(enginePlayer, tableFor(enginePlayer));
+                bestMove = engine.findBestMove(state.getBoard(), state.getCurrentPlayer());
             }
 
+            gameTotalNodes += engine.getMoveTotalNodes();
+            gamePrunedNodes += engine.getMovePrunedNodes();
+
             System.out.println("Minimax score for player: " + state.getCurrentPlayer() + " and current board is: " + bestMove.getScore() + " row: " + bestMove.getRow() + " column: " + bestMove.getColumn());
 
             // Now that we have the minimax, attempt the move and finish turn
@@ -204,40 +220,64 @@ public class Reversi {
     }
 
     /**
-     * Checks if there is a valid move at every board location.
-     * Called after a player makes a move
+     * Analyzes every valid move of the current player in the background and writes the scores on the yellow
+     * squares, updating them as each iteration of the search finishes
      */
-    private int markValidMoves(Piece[][] board, Piece player) {
-        int validMoves = 0;
-        boolean validMove;
-
-        // Loop through every board location
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board.length; j++) {
+    private void showAnalysis() {
+        Piece analyzingPlayer = ReversiConstants.NUMBER_OF_AI >= 2 ? state.getCurrentPlayer() : Piece.WHITE;
+        Engine engine = Engine.forPlayer(analyzingPlayer, tableFor(analyzingPlayer));
+        Piece[][] board = Board.makeCopy(state.getBoard());
+        Piece player = state.getCurrentPlayer();
+
+        analysis = new SwingWorker<Void, AnalyzedMove[]>() {
+            @Override
+            protected Void doInBackground() {
+                engine.analyze(board, player, BOARD_SIZE * BOARD_SIZE,
+                        (depth, ranking) -> publish(ranking.toArray(new AnalyzedMove[0])));
+                return null;
+            }
 
-                // If this piece is not none, continue on
-                if (!board[i][j].equals(Piece.NONE)) {
-                    continue;
+            @Override
+            protected void process(List<AnalyzedMove[]> rankings) {
+                // The board may have moved on while the search ran
+                if (isCancelled()) {
+                    return;
                 }
-
-                // Check every direction for valid
-                validMove = checkDirection(board, player, i, j, -1, -1, false, true);
-                validMove = validMove || checkDirection(board, player, i, j, -1, 0, false, true);
-                validMove = validMove || checkDirection(board, player, i, j, -1, 1, false, true);
-                validMove = validMove || checkDirection(board, player, i, j, 0, 1, false, true);
-                validMove = validMove || checkDirection(board, player, i, j, 1, 1, false, true);
-                validMove = validMove || checkDirection(board, player, i, j, 1, 0, false, true);
-                validMove = validMove || checkDirection(board, player, i, j, 1, -1, false, true);
-                validMove = validMove || checkDirection(board, player, i, j, 0, -1, false, true);
-
-                if (validMove) {
-                    board[i][j] = Piece.POSSIBLE_MOVE;
-                    validMoves += 1;
+                for (AnalyzedMove move : rankings.get(rankings.size() - 1)) {
+                    boardButtons[move.getRow()][move.getColumn()].setText(move.getScoreText());
                 }
+                gui.repaint();
             }
-        }
-        return validMoves;
+        };
+        analysis.execute();
+    }
 
+    /**
+     * Gets the hash table of the engine configuration for a player, making it on first use.  Its results are only
+     * saved between runs if the engine searches deep enough to leave any worth keeping.
+     *
+     * @param player - the player
+     * @return - the player's hash table
+     */
+    private TranspositionTable tableFor(Piece player) {
+        boolean black = player.equals(Piece.BLACK);
+        TranspositionTable table = black ? blackTable : whiteTable;
+        if (table == null) {
+            table = new TranspositionTable(ReversiConstants.HASH_TABLE_BITS);
+            int depth = ReversiConstants.GAME_CLOCK_MILLIS > 0 ? ReversiConstants.MAX_SEARCH_DEPTH
+                    : black ? ReversiConstants.MINIMAX_DEPTH_BLACK_PIECE : ReversiConstants.MINIMAX_DEPTH_WHITE_PIECE;
+            if (depth >= ReversiConstants.PERSIST_MIN_DEPTH) {
+                table.persist(Paths.get(ReversiConstants.ANALYSIS_DIRECTORY),
+                        black ? "staticEvaluationTwo" : "staticEvaluation", ReversiConstants.SELECTIVITY,
+                        ReversiConstants.PERSIST_MIN_DEPTH);
+            }
+            if (black) {
+                blackTable = table;
+            } else {
+                whiteTable = table;
+            }
+        }
+        return table;
     }
 
     /**
@@ -247,20 +287,18 @@ public class Reversi {
      * If one player is unable to move, the game is not over as long as the other player can make a
      * valid move.
      *
-     * @param validMoves - the number of valid moves left on the board for the current player
+     * @param own      - bitboard of the current player's pieces
+     * @param opponent - bitboard of the other player's pieces
      * @return - returns true if the players need to be switched as there is no valid move
      * for the current player
      */
-    private boolean checkFinished(int validMoves) {
+    private boolean checkFinished(long own, long opponent) {
 
-        // If the number of valid moves is zero for the current player, check the other player
-        if (validMoves == 0) {
-
-            Piece[][] boardCopy = makeCopy(state.getBoard());
-            int otherPlayerValidMoves = markValidMoves(boardCopy, getOpposite(state.getCurrentPlayer()));
+        // If there is no valid move for the current player, check the other player
+        if (validMoveMask == 0) {
 
             // If both players have zero moves left, then the game is over
-            if (otherPlayerValidMoves == 0) {
+            if (!Bitboard.hasMove(opponent, own)) {
 
                 System.out.println("No valid moves left.  Game over");
                 System.out.println("Number of total nodes: " + gameTotalNodes + " number of pruned nodes: " + gamePrunedNodes);
@@ -301,467 +339,5 @@ public class Reversi {
         }
         return false;
     }
-
-    /**
-     * Clears out any possible moves on the game board.
-     * Called when a player makes a move
-     */
-    private void clearValidMoves(Piece[][] board) {
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board.length; j++) {
-                if (board[i][j].equals(Piece.POSSIBLE_MOVE)) {
-                    board[i][j] = Piece.NONE;
-                }
-            }
-        }
-    }
-
-    /**
-     * Checks if there was a valid move in a direction
-     *
-     * @param row          - the current row
-     * @param col          - the current column
-     * @param rowIncrement - the direction were're checking row increment
-     * @param colIncrement - the direction were're checking row increment
-     * @param hitOpposite  - whether we've hit the opposite piece yet
-     * @return - boolean whether or not it was a valid move
-     */
-    private boolean checkDirection(Piece[][] board, Piece player, int row, int col, int rowIncrement,
-                                   int colIncrement, boolean hitOpposite, boolean testMove) {
-
-        // Check if out of bounds
-        if (row + rowIncrement == BOARD_SIZE ||
-                row + rowIncrement < 0 ||
-                col + colIncrement == BOARD_SIZE ||
-                col + colIncrement < 0) {
-            return false;
-        }
-
-        int newRow = row + rowIncrement;
-        int newCol = col + colIncrement;
-
-        // Check for opposite color next to immediate
-        if (!hitOpposite && !board[newRow][newCol].equals(getOpposite(player))) {
-            return false;
-        }
-
-        // If hit opposite color, then check if the next color is our
-        if (hitOpposite) {
-            if (board[newRow][newCol].equals(player)) {
-                if (!testMove) {
-                    makeMove(board, player, row, col, -1 * rowIncrement, -1 * colIncrement);
-                }
-                return true;
-                // Make sure if we continue searching, we saw another opponent's piece
-            } else if (!board[newRow][newCol].equals(getOpposite(player))) {
-                return false;
-            }
-        }
-
-        return checkDirection(board, player, newRow, newCol, rowIncrement, colIncrement, true, testMove);
-
-    }
-
-    /**
-     * There was a valid move clicked, so make that move
-     *
-     * @param board        - the current game board
-     * @param row          - the current row in consideration
-     * @param col          - the current column in consideration
-     * @param rowIncrement - backtrack row increment value
-     * @param colIncrement - backtrack column increment value
-     */
-    private void makeMove(Piece[][] board, Piece player, int row, int col, int rowIncrement, int colIncrement) {
-        while (board[row][col].equals(getOpposite(player))) {
-            board[row][col] = player;
-            row = row + rowIncrement;
-            col = col + colIncrement;
-        }
-        board[row][col] = player;
-    }
-
-
-    /**
-     * Gets the opposite of the passed in piece
-     *
-     * @param piece - the piece to get the opposite of
-     * @return the opposite piece of the passed im param
-     */
-    private Piece getOpposite(Piece piece) {
-        return piece.equals(Piece.BLACK) ? Piece.WHITE : Piece.BLACK;
-    }
-
-    /**
-     * Recursive minimax function
-     *
-     * @param depth  - current depth of the tree
-     * @param isMax  - if we're maximizing the tree currently
-     * @param board  - the board object
-     * @param player - the current moving player for the given board object
-     * @param alpha  - the alpha score for alpha-beta pruning
-     * @param beta   - the beta score for alpha-beta pruning
-     * @return - an integer representing the minimax output
-     */
-    private Move minimax(int depth, boolean isMax, Piece[][] board, Piece player, int alpha, int beta) {
-
-        // If we've reached out depth, then return the static evaluation function
-        if (depth == ReversiConstants.MINIMAX_DEPTH_WHITE_PIECE) {
-            return new Move(staticEvaluation(board), -1, -1);
-        }
-
-        ArrayList<Move> children = new ArrayList<>();
-
-        // Find children (valid moves) of the current board object
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board.length; j++) {
-                if (board[i][j].equals(Piece.POSSIBLE_MOVE)) {
-                    Piece[][] child = makeCopy(board);
-
-                    // Go through every possible direction and make the move on the board
-                    checkDirection(child, player, i, j, -1, -1, false, false);
-                    checkDirection(child, player, i, j, -1, 0, false, false);
-                    checkDirection(child, player, i, j, -1, 1, false, false);
-                    checkDirection(child, player, i, j, 0, 1, false, false);
-                    checkDirection(child, player, i, j, 1, 1, false, false);
-                    checkDirection(child, player, i, j, 1, 0, false, false);
-                    checkDirection(child, player, i, j, 1, -1, false, false);
-                    checkDirection(child, player, i, j, 0, -1, false, false);
-
-                    // Clear, then mark the valid moves on the new child with the new player
-                    clearValidMoves(child);
-                    markValidMoves(child, getOpposite(player));
-
-                    Move validBoardMove;
-                    if (isMax) {
-                        validBoardMove = new Move(child, Integer.MIN_VALUE, i, j);
-                    } else {
-                        validBoardMove = new Move(child, Integer.MAX_VALUE, i, j);
-                    }
-
-                    // Add to List of children
-                    children.add(validBoardMove);
-
-                }
-            }
-        }
-
-        // If no possible moves, then return
-        if(children.isEmpty()) {
-            return new Move(staticEvaluation(board), -1, -1);
-        }
-
-        // Default move values
-        Move bestMove;
-
-        if (isMax) {
-            bestMove = new Move(Integer.MIN_VALUE, -1, -1);
-        } else {
-            bestMove = new Move(Integer.MAX_VALUE, -1, -1);
-        }
-
-        // Switch player
-        Piece nextPlayer = getOpposite(player);
-        moveTotalNodes += children.size();
-        gameTotalNodes += children.size();
-
-        // Go through every valid board move
-        for (int i = 0; i < children.size(); i++) {
-            Move childBoardMove = children.get(i);
-
-            // Maximize / minimize as necessary
-            if (isMax) {
-                Move move = minimax(depth + 1, false, childBoardMove.getBoard(), nextPlayer, alpha, beta);
-                if (move.getScore() > bestMove.getScore()) {
-                    bestMove.setRow(childBoardMove.getRow());
-                    bestMove.setColumn(childBoardMove.getColumn());
-                    bestMove.setScore(move.getScore());
-                    alpha = Math.max(alpha, bestMove.getScore());
-                }
-            } else {
-                Move move = minimax(depth + 1, true, childBoardMove.getBoard(), nextPlayer, alpha, beta);
-                if (move.getScore() < bestMove.getScore()) {
-                    bestMove.setRow(childBoardMove.getRow());
-                    bestMove.setColumn(childBoardMove.getColumn());
-                    bestMove.setScore(move.getScore());
-                    beta = Math.min(beta, bestMove.getScore());
-                }
-            }
-
-            // Alpha beta pruning
-            if (beta <= alpha) {
-                movePrunedNodes += (children.size() - 1 - i);
-                gamePrunedNodes += (children.size() - 1 - i);
-                break;
-            }
-        }
-
-        return bestMove;
-
-    }
-
-
-    /**
-     * Recursive minimax function - uses a different static evaluation compared to the other minimax
-     *
-     * @param depth  - current depth of the tree
-     * @param isMax  - if we're maximizing the tree currently
-     * @param board  - the board object
-     * @param player - the current moving player for the given board object
-     * @param alpha  - the alpha score for alpha-beta pruning
-     * @param beta   - the beta scroe for alpha-beta pruning
-     * @return - an integer representing the minimax output
-     */
-    private Move minimaxTwo(int depth, boolean isMax, Piece[][] board, Piece player, int alpha, int beta) {
-
-        // If we've reached out depth, then return the static evaluation function
-        if (depth == ReversiConstants.MINIMAX_DEPTH_BLACK_PIECE) {
-            return new Move(staticEvaluationTwo(board), -1, -1);
-        }
-
-        ArrayList<Move> children = new ArrayList<>();
-
-        // Find children (valid moves) of the current board object
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board.length; j++) {
-                if (board[i][j].equals(Piece.POSSIBLE_MOVE)) {
-                    Piece[][] child = makeCopy(board);
-
-                    // Go through every possible direction and make the move on the board
-                    checkDirection(child, player, i, j, -1, -1, false, false);
-                    checkDirection(child, player, i, j, -1, 0, false, false);
-                    checkDirection(child, player, i, j, -1, 1, false, false);
-                    checkDirection(child, player, i, j, 0, 1, false, false);
-                    checkDirection(child, player, i, j, 1, 1, false, false);
-                    checkDirection(child, player, i, j, 1, 0, false, false);
-                    checkDirection(child, player, i, j, 1, -1, false, false);
-                    checkDirection(child, player, i, j, 0, -1, false, false);
-
-
-                    // Clear, then mark the valid moves on the new child with the new player
-                    clearValidMoves(child);
-                    markValidMoves(child, getOpposite(player));
-
-                    Move validBoardMove;
-                    if (isMax) {
-                        validBoardMove = new Move(child, Integer.MIN_VALUE, i, j);
-                    } else {
-                        validBoardMove = new Move(child, Integer.MAX_VALUE, i, j);
-                    }
-
-
-                    // Add to List of children
-                    children.add(validBoardMove);
-
-                }
-            }
-        }
-
-        // If no possible moves, then return
-        if(children.isEmpty()) {
-            return new Move(staticEvaluationTwo(board), -1, -1);
-        }
-
-        // Default move values
-        Move bestMove;
-
-        if (isMax) {
-            bestMove = new Move(Integer.MIN_VALUE, -1, -1);
-        } else {
-            bestMove = new Move(Integer.MAX_VALUE, -1, -1);
-        }
-
-        // Switch player
-        Piece nextPlayer = getOpposite(player);
-        moveTotalNodes += children.size();
-        gameTotalNodes += children.size();
-
-        // Go through every valid board move
-        for (int i = 0; i < children.size(); i++) {
-            Move childBoardMove = children.get(i);
-
-            // Maximize / minimize as necessary
-            if (isMax) {
-                Move move = minimaxTwo(depth + 1, false, childBoardMove.getBoard(), nextPlayer, alpha, beta);
-                if (move.getScore() >= bestMove.getScore()) {
-                    bestMove.setRow(childBoardMove.getRow());
-                    bestMove.setColumn(childBoardMove.getColumn());
-                    bestMove.setScore(move.getScore());
-                    alpha = Math.max(alpha, bestMove.getScore());
-                }
-            } else {
-                Move move = minimaxTwo(depth + 1, true, childBoardMove.getBoard(), nextPlayer, alpha, beta);
-                if (move.getScore() <= bestMove.getScore()) {
-                    bestMove.setRow(childBoardMove.getRow());
-                    bestMove.setColumn(childBoardMove.getColumn());
-                    bestMove.setScore(move.getScore());
-                    beta = Math.min(beta, bestMove.getScore());
-                }
-            }
-
-            // Alpha beta pruning
-            if (beta <= alpha) {
-                movePrunedNodes += (children.size() - 1 - i);
-                gamePrunedNodes += (children.size() - 1 - i);
-                break;
-            }
-        }
-
-        return bestMove;
-
-    }
-
-    /**
-     * Make a copy of the game board
-     *
-     * @param board - the board to copy
-     * @return - a copy of the board passed in
-     */
-    private Piece[][] makeCopy(Piece[][] board) {
-        Piece[][] newBoard = new Piece[board.length][board.length];
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board.length; j++) {
-                newBoard[i][j] = board[i][j];
-            }
-        }
-        return newBoard;
-    }
-
-
-    /**
-     * Static evaluation function which counts the pieces of the current player vs the other player's pieces
-     *
-     * @param board - the board
-     * @return (total current player pieces - total opposite player pieces)
-     */
-    private int staticEvaluation_CountPieces(Piece[][] board) {
-        int score = 0;
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board.length; j++) {
-                if (board[i][j].equals(state.getCurrentPlayer())) {
-                    score++;
-                } else if (board[i][j].equals(getOpposite(state.getCurrentPlayer()))) {
-                    score--;
-                }
-            }
-        }
-        return score;
-    }
-
-    /**
-     * Static evaluation function which counts the number of corners a player has compared to the other player
-     *
-     * @param board - the board
-     * @return (total corners held - total corners held by opponent)
-     */
-    private int staticEvaluation_CheckCorners(Piece[][] board) {
-        int score = 0;
-
-        // Top left corner
-        if (board[0][0].equals(state.getCurrentPlayer())) {
-            score++;
-        } else if (board[0][0].equals(getOpposite(state.getCurrentPlayer()))) {
-            score--;
-        }
-
-        // Top right corner
-        if (board[0][board.length - 1].equals(state.getCurrentPlayer())) {
-            score++;
-        } else if (board[0][board.length - 1].equals(getOpposite(state.getCurrentPlayer()))) {
-            score--;
-        }
-
-        // Bottom left corner
-        if (board[board.length - 1][0].equals(state.getCurrentPlayer())) {
-            score++;
-        } else if (board[board.length - 1][0].equals(getOpposite(state.getCurrentPlayer()))) {
-            score--;
-        }
-
-        // Bottom right corner
-        if (board[board.length - 1][board.length - 1].equals(state.getCurrentPlayer())) {
-            score++;
-        } else if (board[board.length - 1][board.length - 1].equals(getOpposite(state.getCurrentPlayer()))) {
-            score--;
-        }
-
-        return score;
-    }
-
-    /**
-     * Static evaluation function for how many potential moves a player has based on current board state.
-     * Note: There is a disadvantage.  Since we don't have the previous move, we aren't measuring
-     * the 100% correct potential moves of the opponent board.  We're just utilizing the same board to measure
-     *
-     * @param board - the current board
-     * @return - (potential moves of current player - potential moves of opponent)
-     */
-    private int staticEvaluation_CheckPotentialMoves(Piece[][] board) {
-        // Create an opponent board (same board)
-        Piece[][] opponentBoard = makeCopy(board);
-        clearValidMoves(opponentBoard);
-        markValidMoves(opponentBoard, getOpposite(state.getCurrentPlayer()));
-
-        int score = 0;
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board.length; j++) {
-
-                // Tally based on current player mobility
-                if (board[i][j].equals(Piece.POSSIBLE_MOVE)) {
-                    score++;
-                }
-
-                // Tally based on other player mobility
-                if (opponentBoard[i][j].equals(Piece.POSSIBLE_MOVE)) {
-                    score--;
-                }
-            }
-        }
-
-        return score;
-    }
-
-    /**
-     * White Piece static evaluation function
-     *
-     * @param board - the game board to evaluate
-     * @return - a static evaluation integer based on current board state
-     */
-    private int staticEvaluation(Piece[][] board) {
-        return staticEvaluation_CountPieces(board) +
-                0*staticEvaluation_CheckCorners(board) +
-                0*staticEvaluation_CheckPotentialMoves(board);
-    }
-
-    /**
-     * Black Piece static evaluation function
-     *
-     * @param board - the game board to evaluate
-     * @return - a static evaluation integer based on current board state
-     */
-    private int staticEvaluationTwo(Piece[][] board) {
-        return staticEvaluation_CountPieces(board) +
-                10*staticEvaluation_CheckCorners(board) +
-                0*staticEvaluation_CheckPotentialMoves(board);
-    }
-
-    /**
-     * Prints the board for debugging as passed in
-     * @param board - the board to print out
-     */
-    private void printBoard(Piece[][] board) {
-        System.out.println("Printing board");
-        for(int i = 0; i < board.length; i++) {
-            for(int j = 0; j < board.length; j++) {
-                if(board[i][j].equals(Piece.BLACK)) {
-                    System.out.print("X ");
-                } else if(board[i][j].equals(Piece.WHITE)) {
-                    System.out.print("O ");
-                } else {
-                    System.out.print("_ ");
-                }
-            }
-            System.out.println();
-        }
-    }
 }
 
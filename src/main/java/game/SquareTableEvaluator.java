@@ -0,0 +1,103 @@
+package game;
+
+/**
+ * Weighted square table evaluation: every piece is worth the weight of its square, and the score is the
+ * player's total minus the opponent's.  Batches are scored by a {@link SquareTableKernel} working on the bit
+ * planes of the table, on SIMD lanes when the Vector API is available.
+ */
+public class SquareTableEvaluator implements BatchEvaluator {
+
+    // A usual Othello square table by quadrant, corners good and the squares next to them bad
+    private static final int[] QUADRANT = {
+            100, -20, 10, 5,
+            -20, -50, -2, -2,
+            10, -2, -1, -1,
+            5, -2, -1, -1};
+
+    private static final int BOARD_SIZE = 8;
+
+    private final long[] masks;
+    private final int[] multipliers;
+    private final SquareTableKernel kernel;
+
+    /**
+     * Creates an evaluator using the Vector API kernel if it's available
+     *
+     * @param weights - the weight of each square, indexed row * 8 + column
+     */
+    public SquareTableEvaluator(int[] weights) {
+        this(weights, true);
+    }
+
+    /**
+     * Creates an evaluator
+     *
+     * @param weights     - the weight of each square, indexed row * 8 + column
+     * @param allowVector - false to always use the scalar kernel
+     */
+    public SquareTableEvaluator(int[] weights, boolean allowVector) {
+        // One plane per bit of the positive weights and one per bit of the negated negative weights
+        long[] planes = new long[64];
+        int[] planeMultipliers = new int[64];
+        int planeCount = 0;
+        for (int sign = 1; sign >= -1; sign -= 2) {
+            for (int bit = 0; bit < 31; bit++) {
+                long mask = 0;
+                for (int square = 0; square < Bitboard.SQUARES; square++) {
+                    int magnitude = weights[square] * sign;
+                    if (magnitude > 0 && (magnitude & 1 << bit) != 0) {
+                        mask |= 1L << square;
+                    }
+                }
+                if (mask != 0) {
+                    planes[planeCount] = mask;
+                    planeMultipliers[planeCount] = sign * (1 << bit);
+                    planeCount++;
+                }
+            }
+        }
+
+        this.masks = new long[planeCount];
+        this.multipliers = new int[planeCount];
+        System.arraycopy(planes, 0, masks, 0, planeCount);
+        System.arraycopy(planeMultipliers, 0, multipliers, 0, planeCount);
+        this.kernel = allowVector ? SquareTableKernel.load() : SquareTableKernel.SCALAR;
+    }
+
+    /**
+     * Creates an evaluator with the usual Othello square table
+     *
+     * @param allowVector - false to always use the scalar kernel
+     * @return - the evaluator
+     */
+    public static SquareTableEvaluator standard(boolean allowVector) {
+        int[] weights = new int[Bitboard.SQUARES];
+        for (int row = 0; row < BOARD_SIZE; row++) {
+            for (int column = 0; column < BOARD_SIZE; column++) {
+                int quadrantRow = Math.min(row, BOARD_SIZE - 1 - row);
+                int quadrantColumn = Math.min(column, BOARD_SIZE - 1 - column);
+                weights[row * BOARD_SIZE + column] = QUADRANT[quadrantRow * 4 + quadrantColumn];
+            }
+        }
+        return new SquareTableEvaluator(weights, allowVector);
+    }
+
+    @Override
+    public int evaluate(long own, long opponent) {
+        return SquareTableKernel.score(masks, multipliers, own, opponent);
+    }
+
+    @Override
+    public void evaluate(long[] own, long[] opponent, int count, int[] scores) {
+        kernel.evaluate(masks, multipliers, own, opponent, count, scores);
+    }
+
+    /**
+     * Checks if batches are scored on SIMD lanes
+     *
+     * @return - true if the Vector API kernel is in use
+     */
+    public boolean isVectorized() {
+        return kernel != SquareTableKernel.SCALAR;
+    }
+}
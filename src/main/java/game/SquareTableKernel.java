@@ -0,0 +1,64 @@
+package game;
+
+/**
+ * Inner loop of {@link SquareTableEvaluator}.  The square table is split into bit planes: masks of the
+ * squares whose weight has a given bit set, each with the signed power of two it adds.  A score is then
+ * the sum over the planes of multiplier * (own pieces on the plane - opponent pieces on the plane).
+ * <p>
+ * The Vector API kernel is compiled separately for Java 17 (src/vector/java) and only used when the
+ * jdk.incubator.vector module is present at run time, otherwise the scalar kernel runs.
+ */
+interface SquareTableKernel {
+
+    /**
+     * Scores a batch of positions
+     *
+     * @param masks       - the bit plane masks
+     * @param multipliers - the signed power of two of each plane
+     * @param own         - bitboards of the pieces of the players the scores are relative to
+     * @param opponent    - bitboards of the other players' pieces
+     * @param count       - the number of positions, from index 0
+     * @param scores      - receives the score of each position
+     */
+    void evaluate(long[] masks, int[] multipliers, long[] own, long[] opponent, int count, int[] scores);
+
+    /**
+     * Scalar kernel, one position at a time
+     */
+    SquareTableKernel SCALAR = (masks, multipliers, own, opponent, count, scores) -> {
+        for (int i = 0; i < count; i++) {
+            scores[i] = score(masks, multipliers, own[i], opponent[i]);
+        }
+    };
+
+    /**
+     * Scores one position with a popcount per plane
+     *
+     * @param masks       - the bit plane masks
+     * @param multipliers - the signed power of two of each plane
+     * @param own         - pieces of the player the score is relative to
+     * @param opponent    - the other player's pieces
+     * @return - the score
+     */
+    static int score(long[] masks, int[] multipliers, long own, long opponent) {
+        int score = 0;
+        for (int j = 0; j < masks.length; j++) {
+            score += multipliers[j] * (Long.bitCount(own & masks[j]) - Long.bitCount(opponent & masks[j]));
+        }
+        return score;
+    }
+
+    /**
+     * Loads the Vector API kernel if this JVM can run it
+     *
+     * @return - the Vector API kernel, or the scalar one if jdk.incubator.vector is missing
+     */
+    static SquareTableKernel load() {
+        try {
+            return (SquareTableKernel) Class.forName("game.VectorSquareTableKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
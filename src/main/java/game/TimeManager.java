@@ -0,0 +1,172 @@
+package game;
+
+/**
+ * Decides how long one move of a timed game may think.
+ * <p>
+ * The remaining clock is split over the moves the player still has to make, counted from the empty squares.
+ * Midgame moves get a larger share, and a reserve is kept back until the endgame so there is time for the
+ * deep search near the end.  The engine asks after every iteration whether to go one deeper: it spends
+ * longer when the best move changed or the score dropped, and stops early when one move clearly dominates.
+ * The hard limit is never more than half of what is left on the clock, so a game is never lost on time.
+ */
+public class TimeManager {
+
+    // Clock kept back for communication and scheduling delays
+    private static final long SAFETY_MARGIN_MILLIS = 50;
+
+    // Below this many empty squares the search is close to solving the game
+    private static final int ENDGAME_EMPTIES = 14;
+
+    // Share of the clock kept back for the endgame while it's still ahead
+    private static final double ENDGAME_RESERVE = 0.2;
+
+    // Midgame moves (between these empty square counts) get more time than opening moves
+    private static final int MIDGAME_START_EMPTIES = 44;
+    private static final int MIDGAME_END_EMPTIES = 20;
+    private static final double MIDGAME_FACTOR = 1.5;
+
+    // How far past the budget an unstable search may go, and what counts as a score drop
+    private static final double INSTABILITY_FACTOR = 2.0;
+    private static final int SCORE_DROP = 2;
+
+    // Depth from which a dominating move ends the search early
+    private static final int DOMINANCE_MIN_DEPTH = 4;
+
+    private final long budgetNanos;
+    private final long hardLimitNanos;
+    private final long nodeLimit;
+
+    // A fixed limit searches until it runs out, without any of the planning
+    private final boolean fixed;
+    private long startNanos;
+
+    private int lastBestSquare = Move.NO_SQUARE;
+    private int lastBestScore;
+
+    /**
+     * Plans the time for one move
+     *
+     * @param remainingMillis - time left on the player's clock
+     * @param emptySquares    - number of empty squares on the board
+     */
+    public TimeManager(long remainingMillis, int emptySquares) {
+        long usable = Math.max(0, remainingMillis - SAFETY_MARGIN_MILLIS);
+
+        // Moves the player still has to make, half of the empty squares
+        int movesLeft = Math.max(1, (emptySquares + 1) / 2);
+        double stageFactor = 1.0;
+
+        if (emptySquares > ENDGAME_EMPTIES) {
+            usable -= (long) (usable * ENDGAME_RESERVE);
+            movesLeft = Math.max(1, (emptySquares - ENDGAME_EMPTIES + 1) / 2);
+            if (emptySquares <= MIDGAME_START_EMPTIES && emptySquares >= MIDGAME_END_EMPTIES) {
+                stageFactor = MIDGAME_FACTOR;
+            }
+        }
+
+        long budgetMillis = (long) (usable / movesLeft * stageFactor);
+        long hardLimitMillis = Math.min(budgetMillis * 4, Math.max(0, remainingMillis - SAFETY_MARGIN_MILLIS) / 2);
+
+        this.budgetNanos = Math.max(1, Math.min(budgetMillis, hardLimitMillis)) * 1000000L;
+        this.hardLimitNanos = Math.max(1, hardLimitMillis) * 1000000L;
+        this.nodeLimit = Long.MAX_VALUE;
+        this.fixed = false;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Creates a fixed limit, e.g. for test positions
+     *
+     * @param limitMillis - time the move may use
+     * @param nodeLimit   - nodes the move may visit
+     */
+    private TimeManager(long limitMillis, long nodeLimit) {
+        this.budgetNanos = limitMillis * 1000000L;
+        this.hardLimitNanos = budgetNanos;
+        this.nodeLimit = nodeLimit;
+        this.fixed = true;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Gets a limit that searches one move deeper and deeper until the time or the node count runs out.
+     * The iteration that runs out is thrown away.
+     *
+     * @param limitMillis - time the move may use
+     * @param nodeLimit   - nodes the move may visit
+     * @return - the time manager
+     */
+    public static TimeManager fixed(long limitMillis, long nodeLimit) {
+        return new TimeManager(Math.max(1, Math.min(limitMillis, Long.MAX_VALUE / 1000000L)), Math.max(1, nodeLimit));
+    }
+
+    /**
+     * Starts the clock for this move
+     */
+    void start() {
+        startNanos = System.nanoTime();
+        lastBestSquare = Move.NO_SQUARE;
+    }
+
+    /**
+     * Gets the time after which the search must stop, even in the middle of an iteration
+     *
+     * @return - the deadline in System.nanoTime() terms
+     */
+    long deadlineNanos() {
+        // A limit too long to add to the clock never runs out
+        if (startNanos > 0 && hardLimitNanos > Long.MAX_VALUE - startNanos) {
+            return Long.MAX_VALUE;
+        }
+        return startNanos + hardLimitNanos;
+    }
+
+    /**
+     * Gets the node count after which the search must stop
+     *
+     * @return - the node limit, Long.MAX_VALUE for none
+     */
+    long nodeLimit() {
+        return nodeLimit;
+    }
+
+    /**
+     * Called after every completed iteration
+     *
+     * @param depth      - the depth just completed
+     * @param bestSquare - the best move of the iteration
+     * @param bestScore  - the score of the best move
+     * @param dominant   - true if every other move scored clearly below the best one
+     * @return - true if the search should go one deeper
+     */
+    boolean startNextIteration(int depth, int bestSquare, int bestScore, boolean dominant) {
+        long elapsed = System.nanoTime() - startNanos;
+        long budget = budgetNanos;
+        if (fixed) {
+            return elapsed < hardLimitNanos;
+        }
+
+        boolean unstable = lastBestSquare != Move.NO_SQUARE
+                && (bestSquare != lastBestSquare || bestScore <= lastBestScore - SCORE_DROP);
+        lastBestSquare = bestSquare;
+        lastBestScore = bestScore;
+
+        if (unstable) {
+            budget = Math.min((long) (budget * INSTABILITY_FACTOR), hardLimitNanos);
+        } else if (dominant && depth >= DOMINANCE_MIN_DEPTH) {
+            return false;
+        }
+
+        // The next iteration usually takes longer than all of the previous ones together
+        return elapsed < budget / 2;
+    }
+
+    /**
+     * Gets the time this move has used so far
+     *
+     * @return - elapsed time in milliseconds
+     */
+    public long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1000000L;
+    }
+}
@@ -0,0 +1,320 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Fixed size hash table of search results keyed by a hash of the bitboards of the player to move and the
+ * opponent.
+ * <p>
+ * Scores are stored relative to the player to move, so a table can be shared by searches from either side
+ * and by any number of threads.  Each slot keeps the key xor'd with its data, a torn write from two
+ * threads storing at once just reads back as a miss.
+ * <p>
+ * The deep results of a table can be saved to a file and merged into a table of a later session, so analysis
+ * isn't redone after every restart.  The file is a header (magic, version, entry count, selectivity, CRC32 of
+ * the rest), the name of the evaluation function and then a hash and a packed entry per result.  Scores only
+ * mean the same thing to a search with the same evaluation and selectivity, a ProbCut result is not a proven
+ * one, so a file is only merged into a search with the setting it was saved from.
+ */
+public class TranspositionTable {
+
+    // Bound types of a stored score
+    public static final int EXACT = 0;
+    public static final int LOWER_BOUND = 1;
+    public static final int UPPER_BOUND = 2;
+
+    // "RVHT", and the version of the file layout and entry packing
+    private static final int FILE_MAGIC = 0x52564854;
+    private static final int FILE_VERSION = 2;
+    private static final int HEADER_BYTES = 24;
+    private static final int ENTRY_BYTES = 16;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    /**
+     * Creates an empty table
+     *
+     * @param bits - the table holds 2^bits entries
+     */
+    public TranspositionTable(int bits) {
+        this.keys = new long[1 << bits];
+        this.data = new long[1 << bits];
+        this.mask = (1 << bits) - 1;
+    }
+
+    /**
+     * Hashes a position.  The player to move is implied, their pieces are always the first bitboard.
+     *
+     * @param player   - pieces of the player to move
+     * @param opponent - pieces of the opponent
+     * @return - the position hash
+     */
+    public static long hash(long player, long opponent) {
+        return mix(player) ^ mix(opponent + 0x9e3779b97f4a7c15L) * 31;
+    }
+
+    /**
+     * Scrambles the bits of a long (the MurmurHash3 finalizer)
+     *
+     * @param value - the value
+     * @return - the scrambled value
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param hash - the position hash
+     * @return - the packed entry, or 0 if the position is not in the table
+     */
+    public long probe(long hash) {
+        int index = (int) hash & mask;
+        long entry = data[index];
+        if ((keys[index] ^ entry) != hash) {
+            return 0;
+        }
+        return entry;
+    }
+
+    /**
+     * Stores a search result.  An entry for another position is always replaced, an entry for the same
+     * position only by a search at least as deep.
+     *
+     * @param hash     - the position hash
+     * @param depth    - the remaining depth the score was searched to
+     * @param score    - the score relative to the player to move
+     * @param bound    - EXACT, LOWER_BOUND or UPPER_BOUND
+     * @param bestMove - the best square index (row * size + column), or -1 if there is none
+     */
+    public void store(long hash, int depth, int score, int bound, int bestMove) {
+        int index = (int) hash & mask;
+        long existing = data[index];
+        if ((keys[index] ^ existing) == hash && depth(existing) > depth) {
+            return;
+        }
+
+        long entry = (score & 0xffffffffL) << 32
+                | (long) (depth & 0xff) << 16
+                | (long) bound << 12
+                | (long) ((bestMove + 1) & 0xff) << 4
+                | 1;
+        data[index] = entry;
+        keys[index] = hash ^ entry;
+    }
+
+    /**
+     * Removes every entry
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+    }
+
+    /**
+     * Writes every result searched at least a given depth to a file, replacing it, and creates its directory if
+     * needed.  Searches may keep running on the table, an entry torn by a concurrent store is left out.
+     *
+     * @param file        - the file
+     * @param evaluation  - name of the evaluation function the table was searched with
+     * @param selectivity - ProbCut selectivity the table was searched with, 0 for full width
+     * @param minDepth    - the shallowest remaining depth worth keeping
+     * @return - the number of results written, 0 if none were deep enough, which leaves the file as it was
+     * @throws IOException - if the file can't be written
+     */
+    public int save(Path file, String evaluation, int selectivity, int minDepth) throws IOException {
+        byte[] name = evaluation.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer entries = ByteBuffer.allocate(2 + name.length + keys.length * ENTRY_BYTES);
+        entries.putShort((short) name.length).put(name);
+        for (int index = 0; index < keys.length; index++) {
+            long entry = data[index];
+            long hash = keys[index] ^ entry;
+            if (entry != 0 && ((int) hash & mask) == index && depth(entry) >= minDepth) {
+                entries.putLong(hash).putLong(entry);
+            }
+        }
+        entries.flip();
+        int count = (entries.remaining() - 2 - name.length) / ENTRY_BYTES;
+        if (count == 0) {
+            return 0;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(entries.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(count).putInt(selectivity).putLong(crc.getValue());
+        header.flip();
+
+        // Written aside and moved over the old file, so a crash mid-write leaves the old one intact.  The temporary
+        // file has a name of its own, two processes saving at once can't write into each other's.
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName() + ".", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while (entries.hasRemaining()) {
+                    channel.write(entries);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return count;
+    }
+
+    /**
+     * Merges the results saved in a file into the table.  A result replaces what the table has only where
+     * {@link #store(long, int, int, int, int)} would let it.
+     *
+     * @param file        - the file, as written by {@link #save(Path, String, int, int)}
+     * @param evaluation  - name of the evaluation function the table is searched with
+     * @param selectivity - ProbCut selectivity the table is searched with, 0 for full width
+     * @return - the number of results read
+     * @throws IOException - if the file can't be read, is from another version or setting or fails its checksum
+     */
+    public int merge(Path file, String evaluation, int selectivity) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is not a hash file");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != FILE_MAGIC) {
+                throw new IOException(file + " is not a hash file");
+            }
+            int version = buffer.getInt();
+            if (version != FILE_VERSION) {
+                throw new IOException(file + " is version " + version + ", expected " + FILE_VERSION);
+            }
+            int count = buffer.getInt();
+            int savedSelectivity = buffer.getInt();
+            long checksum = buffer.getLong();
+            int nameLength = size >= HEADER_BYTES + 2 ? buffer.getShort(HEADER_BYTES) & 0xffff : -1;
+            if (count < 0 || nameLength < 0 || size != HEADER_BYTES + 2 + nameLength + (long) count * ENTRY_BYTES) {
+                throw new IOException(file + " is truncated");
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if (crc.getValue() != checksum) {
+                throw new IOException(file + " fails its checksum");
+            }
+
+            buffer.getShort();
+            byte[] name = new byte[nameLength];
+            buffer.get(name);
+            String savedEvaluation = new String(name, StandardCharsets.US_ASCII);
+            if (!savedEvaluation.equals(evaluation) || savedSelectivity != selectivity) {
+                throw new IOException(file + " was searched with " + savedEvaluation + " at selectivity "
+                        + savedSelectivity + ", expected " + evaluation + " at selectivity " + selectivity);
+            }
+
+            for (int i = 0; i < count; i++) {
+                long hash = buffer.getLong();
+                long entry = buffer.getLong();
+                store(hash, depth(entry), score(entry), bound(entry), bestMove(entry));
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Gets the file the analysis of a search setting is kept in between runs
+     *
+     * @param directory   - the directory analysis is kept in
+     * @param evaluation  - name of the evaluation function, e.g. staticEvaluation
+     * @param selectivity - ProbCut selectivity, 0 for full width
+     * @return - the file
+     */
+    public static Path analysisFile(Path directory, String evaluation, int selectivity) {
+        return directory.resolve("analysis_" + evaluation + "_" + selectivity + ".hash");
+    }
+
+    /**
+     * Merges the saved analysis of a search setting into the table if there is any, and saves the deep results
+     * back when the JVM exits.  Both are reported on standard error, as standard output may be carrying the
+     * engine protocol, and a file that can't be used is otherwise ignored: the table just starts cold.
+     *
+     * @param directory   - the directory analysis is kept in, see {@link #analysisFile(Path, String, int)}
+     * @param evaluation  - name of the evaluation function the table is searched with
+     * @param selectivity - ProbCut selectivity the table is searched with, 0 for full width
+     * @param minDepth    - the shallowest remaining depth worth keeping, 0 or less doesn't persist the table
+     */
+    public void persist(Path directory, String evaluation, int selectivity, int minDepth) {
+        if (minDepth <= 0) {
+            return;
+        }
+        Path file = analysisFile(directory, evaluation, selectivity);
+        if (Files.exists(file)) {
+            try {
+                System.err.println("Merged " + merge(file, evaluation, selectivity) + " search results from " + file);
+            } catch (IOException e) {
+                System.err.println("Ignoring saved search results: " + e.getMessage());
+            }
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                int count = save(file, evaluation, selectivity, minDepth);
+                if (count > 0) {
+                    System.err.println("Saved " + count + " search results to " + file);
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to save search results: " + e.getMessage());
+            }
+        }, "save " + file.getFileName()));
+    }
+
+    /**
+     * @param entry - a packed entry
+     * @return - the stored score, relative to the player to move
+     */
+    public static int score(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    /**
+     * @param entry - a packed entry
+     * @return - the remaining depth the score was searched to
+     */
+    public static int depth(long entry) {
+        return (int) (entry >>> 16) & 0xff;
+    }
+
+    /**
+     * @param entry - a packed entry
+     * @return - EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public static int bound(long entry) {
+        return (int) (entry >>> 12) & 0xf;
+    }
+
+    /**
+     * @param entry - a packed entry
+     * @return - the best square index, or -1 if there is none
+     */
+    public static int bestMove(long entry) {
+        return ((int) (entry >>> 4) & 0xff) - 1;
+    }
+}
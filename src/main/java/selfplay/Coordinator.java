@@ -0,0 +1,452 @@
+package selfplay;
+
+import constants.Piece;
+import game.Bitboard;
+import game.Board;
+import game.GameRecord;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out self-play games to worker processes and collects the finished games in the compact record format.
+ * <p>
+ * Workers connect over a TCP port, on the loopback address unless another is given, and speak a line based
+ * protocol:
+ * <pre>
+ * worker:      ready
+ * coordinator: batch &lt;id&gt; &lt;n&gt;, then n lines "game &lt;opening transcript or -&gt; &lt;black config&gt; &lt;white config&gt;"
+ *              or done once every game is finished
+ * worker:      results &lt;id&gt; &lt;n&gt;, then n lines, each a record or "failed &lt;reason&gt;", then ready
+ * </pre>
+ * Workers keep no state between batches, so they can join or leave at any time: the games of a batch whose
+ * worker disconnects before returning it are put back in the queue for the others, until a game has been
+ * lost that way MAX_FAILURES times.  A worker that keeps its connection but doesn't return a batch in time
+ * for the depths it's played at counts as gone as well, and so does one returning a record that isn't a
+ * finished game of the one it was sent.  A game a worker reports as failed is dropped at
+ * once, it would fail the same way anywhere.  Each batch holds several games, which keeps the messages few
+ * next to the time the games take.
+ */
+public class Coordinator {
+
+    private static final int BOARD_SIZE = 8;
+
+    // How long a connection waits for work before checking again if the run is over
+    private static final long POLL_MILLIS = 200;
+
+    // Time a worker gets for each move of a batch's games at up to TIMEOUT_BASE_DEPTH, times TIMEOUT_GROWTH for
+    // every ply deeper, before the worker counts as hung and its batch goes back in the queue
+    private static final long MOVE_TIMEOUT_MILLIS = 2000;
+    private static final int TIMEOUT_BASE_DEPTH = 4;
+    private static final int TIMEOUT_GROWTH = 4;
+
+    // Moves each player makes in a game at most
+    private static final int MOVES_PER_PLAYER = 32;
+
+    // Times a game may be lost with its worker before it's dropped, so a game that kills workers can't end the run
+    private static final int MAX_FAILURES = 3;
+
+    private final InetAddress bindAddress;
+    private final int port;
+    private final int batchSize;
+    private final Writer output;
+
+    // The "game" lines, handed out by index, and how often each was lost with its worker
+    private final List<String> games;
+    private final int[] failures;
+    private final BlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+
+    private final Object finished = new Object();
+    private int remaining;
+    private int dropped = 0;
+    private int nextBatch = 1;
+
+    // Set when the output can't be written, which ends the run
+    private IOException outputFailure;
+
+    /**
+     * Creates a coordinator
+     *
+     * @param bindAddress - the address to listen on, null for the loopback address
+     * @param port        - the port to listen on
+     * @param games       - the games to play, as "game" lines of the protocol
+     * @param batchSize   - the most games sent to a worker at once
+     * @param output      - receives a record line for every finished game
+     */
+    public Coordinator(InetAddress bindAddress, int port, List<String> games, int batchSize, Writer output) {
+        this.bindAddress = bindAddress != null ? bindAddress : InetAddress.getLoopbackAddress();
+        this.port = port;
+        this.batchSize = Math.max(1, batchSize);
+        this.output = output;
+        this.games = new ArrayList<>(games);
+        this.failures = new int[games.size()];
+        for (int i = 0; i < games.size(); i++) {
+            queue.add(i);
+        }
+        this.remaining = games.size();
+    }
+
+    /**
+     * Makes the games of a match: every opening is played twice, each config taking black once
+     *
+     * @param openings - the opening transcripts
+     * @param first    - one config name
+     * @param second   - the other config name
+     * @return - the "game" lines of the protocol
+     */
+    public static List<String> match(List<String> openings, String first, String second) {
+        List<String> games = new ArrayList<>();
+        for (String opening : openings) {
+            games.add("game " + opening + " " + first + " " + second);
+            games.add("game " + opening + " " + second + " " + first);
+        }
+        return games;
+    }
+
+    /**
+     * Plays random openings from the start position
+     *
+     * @param count  - the number of openings
+     * @param plies  - the number of moves in each, fewer if a game ends first
+     * @param random - the source of the moves
+     * @return - the opening transcripts, "-" for an empty one
+     */
+    public static List<String> randomOpenings(int count, int plies, Random random) {
+        List<String> openings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Piece[][] board = Board.newBoard(BOARD_SIZE);
+            Piece player = Piece.BLACK;
+            int[] moves = new int[plies];
+            int played = 0;
+            while (played < plies) {
+                player = GameRecord.sideToMove(board, player);
+                long valid = Bitboard.validMoves(Bitboard.fromBoard(board, player),
+                        Bitboard.fromBoard(board, Board.getOpposite(player)));
+                if (valid == 0) {
+                    break;
+                }
+                for (int skip = random.nextInt(Long.bitCount(valid)); skip > 0; skip--) {
+                    valid &= valid - 1;
+                }
+                int square = Long.numberOfTrailingZeros(valid);
+                Board.applyMove(board, player, square / BOARD_SIZE, square % BOARD_SIZE);
+                moves[played++] = square;
+                player = Board.getOpposite(player);
+            }
+            int[] opening = new int[played];
+            System.arraycopy(moves, 0, opening, 0, played);
+            openings.add(played == 0 ? "-" : GameRecord.transcript(opening));
+        }
+        return openings;
+    }
+
+    /**
+     * Serves workers until every game is finished
+     *
+     * @throws IOException - if the listening socket fails or the output can't be written
+     */
+    public void run() throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 50, bindAddress)) {
+            System.out.println("Coordinator listening on " + server.getLocalSocketAddress() + ", "
+                    + remaining + " games");
+
+            Thread acceptor = new Thread(() -> accept(server), "accept");
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            synchronized (finished) {
+                while (remaining > 0 && outputFailure == null) {
+                    try {
+                        finished.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (outputFailure != null) {
+                    throw outputFailure;
+                }
+            }
+            System.out.println("All games finished" + (dropped > 0 ? ", " + dropped + " dropped" : ""));
+
+            // Give the connected workers a moment to be told there's nothing left
+            try {
+                Thread.sleep(2 * POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Accepts workers, each served on its own thread
+     *
+     * @param server - the listening socket
+     */
+    private void accept(ServerSocket server) {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                Thread connection = new Thread(() -> serve(socket), "worker " + socket.getRemoteSocketAddress());
+                connection.setDaemon(true);
+                connection.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Serves one worker.  If the worker goes away or answers out of protocol, its batch is put back.
+     *
+     * @param socket - the worker's connection
+     */
+    private void serve(Socket socket) {
+        List<Integer> batch = new ArrayList<>();
+        try (Socket connection = socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(new BufferedWriter(
+                     new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.US_ASCII)))) {
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.trim().equals("ready")) {
+                    throw new IOException("expected ready: " + line);
+                }
+
+                if (!takeBatch(batch)) {
+                    out.println("done");
+                    out.flush();
+                    return;
+                }
+                int id = nextBatchId();
+                out.println("batch " + id + " " + batch.size());
+                for (int game : batch) {
+                    out.println(games.get(game));
+                }
+                out.flush();
+
+                // Once its results are in, the batch is never handed out again, whatever happens to the output
+                connection.setSoTimeout(resultTimeoutMillis(batch));
+                List<String> results = readResults(in, id, batch);
+                List<Integer> returned = new ArrayList<>(batch);
+                batch.clear();
+                finish(returned, results);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Worker " + socket.getRemoteSocketAddress() + " dropped: " + e.getMessage());
+        } finally {
+            requeue(batch);
+        }
+    }
+
+    /**
+     * Puts the games of a lost batch back in the queue, dropping those lost too often
+     *
+     * @param batch - indices of the games
+     */
+    private void requeue(List<Integer> batch) {
+        synchronized (finished) {
+            for (int game : batch) {
+                if (++failures[game] < MAX_FAILURES) {
+                    queue.add(game);
+                } else {
+                    System.out.println("Dropping " + games.get(game) + ", lost with its worker " + MAX_FAILURES
+                            + " times");
+                    dropped++;
+                    remaining--;
+                }
+            }
+            finished.notifyAll();
+        }
+    }
+
+    /**
+     * Waits for games to hand out, as many as a batch holds
+     *
+     * @param batch - receives the indices of the games
+     * @return - false if every game is finished, so there will never be more
+     */
+    private boolean takeBatch(List<Integer> batch) {
+        while (true) {
+            try {
+                Integer game = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (game != null) {
+                    batch.add(game);
+                    queue.drainTo(batch, batchSize - 1);
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            synchronized (finished) {
+                if (remaining == 0) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets how long a worker may take to play a batch, from the depths of the configs playing its games
+     *
+     * @param batch - indices of the games
+     * @return - the read timeout in milliseconds
+     */
+    private int resultTimeoutMillis(List<Integer> batch) {
+        long millis = 0;
+        for (int game : batch) {
+            String[] words = games.get(game).trim().split("\\s+");
+            for (int i = 2; i < words.length; i++) {
+                int depth = TIMEOUT_BASE_DEPTH;
+                try {
+                    depth = EngineConfig.parse(words[i]).getDepth();
+                } catch (IllegalArgumentException e) {
+                    // The worker reports the game as failed right away
+                }
+                long moveMillis = MOVE_TIMEOUT_MILLIS;
+                for (int ply = TIMEOUT_BASE_DEPTH; ply < depth && moveMillis < Integer.MAX_VALUE; ply++) {
+                    moveMillis *= TIMEOUT_GROWTH;
+                }
+                millis += MOVES_PER_PLAYER * moveMillis;
+            }
+        }
+        return (int) Math.max(1, Math.min(millis, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Reads the results of a batch, checking every record is a finished game of the one it was sent for
+     *
+     * @param in    - the worker's input
+     * @param id    - the batch the results should be for
+     * @param batch - indices of the games in the batch
+     * @return - the record lines, and "failed" lines for the games the worker couldn't play
+     * @throws IOException - if the worker goes away or doesn't send the results of the batch
+     */
+    private List<String> readResults(BufferedReader in, int id, List<Integer> batch) throws IOException {
+        String header = in.readLine();
+        if (header == null || !header.trim().equals("results " + id + " " + batch.size())) {
+            throw new IOException("expected results of batch " + id + ": " + header);
+        }
+        List<String> records = new ArrayList<>();
+        for (int game : batch) {
+            String line = in.readLine();
+            if (line == null) {
+                throw new IOException("batch " + id + " cut short");
+            }
+            if (line.startsWith("failed")) {
+                records.add(line);
+                continue;
+            }
+            GameRecord record = GameRecord.parse(line);
+            String mismatch = mismatch(record, games.get(game));
+            if (mismatch != null) {
+                throw new IOException("batch " + id + " has a record that " + mismatch + ": " + line);
+            }
+            records.add(record.toLine());
+        }
+        return records;
+    }
+
+    /**
+     * Checks a record against the game it should be a result of: the same configs and opening, a transcript
+     * that plays out to the end of the game, and the score of that end
+     *
+     * @param record - the returned record
+     * @param game   - the "game" line sent for it
+     * @return - what doesn't match, or null if the record is the game
+     */
+    private static String mismatch(GameRecord record, String game) {
+        String[] words = game.trim().split("\\s+");
+        if (!record.getBlackEngine().equals(words[2]) || !record.getWhiteEngine().equals(words[3])) {
+            return "is for other configs";
+        }
+        int[] opening = GameRecord.parseTranscript(words[1]);
+        int[] moves = record.getMoves();
+        if (record.getOpeningMoves() != opening.length || moves.length < opening.length) {
+            return "has another opening";
+        }
+        for (int i = 0; i < opening.length; i++) {
+            if (moves[i] != opening[i]) {
+                return "has another opening";
+            }
+        }
+
+        Piece[][] board = Board.newBoard(BOARD_SIZE);
+        try {
+            GameRecord.replay(moves, moves.length, board);
+        } catch (IllegalArgumentException e) {
+            return "has an invalid " + e.getMessage().replace(" is not valid", "");
+        }
+        long black = Bitboard.fromBoard(board, Piece.BLACK);
+        long white = Bitboard.fromBoard(board, Piece.WHITE);
+        if (!Bitboard.isTerminal(black, white)) {
+            return "stops before the game is over";
+        }
+        if (record.getScore() != Bitboard.finalScore(black, white)) {
+            return "has the wrong score";
+        }
+        return null;
+    }
+
+    /**
+     * Writes the records of a returned batch in one piece and drops its failed games.  If the output fails the
+     * run ends, as the games can't be played again without some of them being written twice.
+     *
+     * @param batch   - indices of the games
+     * @param results - the record or "failed" line of each game
+     */
+    private void finish(List<Integer> batch, List<String> results) {
+        StringBuilder text = new StringBuilder();
+        int failed = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).startsWith("failed")) {
+                System.out.println("Dropping " + games.get(batch.get(i)) + ", " + results.get(i));
+                failed++;
+            } else {
+                text.append(results.get(i)).append(System.lineSeparator());
+            }
+        }
+
+        synchronized (finished) {
+            if (outputFailure != null) {
+                return;
+            }
+            try {
+                output.write(text.toString());
+                output.flush();
+            } catch (IOException e) {
+                outputFailure = e;
+                finished.notifyAll();
+                return;
+            }
+            dropped += failed;
+            remaining -= results.size();
+            if (remaining % 100 < results.size() || remaining == 0) {
+                System.out.println(remaining + " games left");
+            }
+            finished.notifyAll();
+        }
+    }
+
+    private synchronized int nextBatchId() {
+        return nextBatch++;
+    }
+}
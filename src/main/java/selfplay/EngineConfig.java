@@ -0,0 +1,103 @@
+package selfplay;
+
+import constants.ReversiConstants;
+import game.Engine;
+import game.Evaluation;
+import game.Evaluator;
+import game.ProbCut;
+import game.SquareTableEvaluator;
+import game.TranspositionTable;
+
+/**
+ * An engine setting for self-play, named "evaluation/depth/selectivity" (e.g. staticEvaluation/4/2) so it can
+ * travel in the protocol and the game records as a single word.
+ */
+public final class EngineConfig {
+
+    private final String name;
+    private final String evaluation;
+    private final Evaluator evaluator;
+    private final int depth;
+    private final int selectivity;
+
+    private EngineConfig(String name, String evaluation, Evaluator evaluator, int depth, int selectivity) {
+        this.name = name;
+        this.evaluation = evaluation;
+        this.evaluator = evaluator;
+        this.depth = depth;
+        this.selectivity = selectivity;
+    }
+
+    /**
+     * Parses a config name
+     *
+     * @param name - evaluation/depth/selectivity
+     * @return - the config
+     * @throws IllegalArgumentException - if the name is not a config
+     */
+    public static EngineConfig parse(String name) {
+        String[] parts = name.split("/");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("expected evaluation/depth/selectivity: " + name);
+        }
+
+        Evaluator evaluator;
+        if (parts[0].equals("staticEvaluation")) {
+            evaluator = Evaluation::staticEvaluation;
+        } else if (parts[0].equals("staticEvaluationTwo")) {
+            evaluator = Evaluation::staticEvaluationTwo;
+        } else if (parts[0].equals("squareTable")) {
+            evaluator = SquareTableEvaluator.standard(true);
+        } else {
+            throw new IllegalArgumentException("unknown evaluation: " + parts[0]);
+        }
+
+        try {
+            int depth = Integer.parseInt(parts[1]);
+            int selectivity = Integer.parseInt(parts[2]);
+            if (depth < 1 || selectivity < 0) {
+                throw new IllegalArgumentException("bad depth or selectivity: " + name);
+            }
+
+            // Deeper than a game can go would only size the engine's per-ply buffers
+            depth = Math.min(depth, ReversiConstants.MAX_SEARCH_DEPTH);
+            return new EngineConfig(name, parts[0], evaluator, depth, selectivity);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad number in config: " + name);
+        }
+    }
+
+    /**
+     * Creates an engine with this setting
+     *
+     * @param table - the hash table the engine searches with, or null for none
+     * @return - the engine
+     */
+    public Engine createEngine(TranspositionTable table) {
+        return createEngine(table, depth);
+    }
+
+    /**
+     * Creates an engine with this setting searching to another depth
+     *
+     * @param table - the hash table the engine searches with, or null for none
+     * @param depth - the depth of the minimax tree
+     * @return - the engine
+     */
+    public Engine createEngine(TranspositionTable table, int depth) {
+        return new Engine(depth, evaluator, table, ProbCut.load(evaluation, selectivity));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,169 @@
+package selfplay;
+
+import constants.Piece;
+import constants.ReversiConstants;
+import game.Bitboard;
+import game.Board;
+import game.Engine;
+import game.GameRecord;
+import game.Move;
+import game.TranspositionTable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Plays the self-play games a {@link Coordinator} hands out until it says there are none left.  A worker keeps
+ * nothing between batches that the coordinator relies on, so any number of them can be started or killed
+ * while a run is going.  A game that can't be played is reported back as failed, the worker goes on with the
+ * rest.
+ */
+public class Worker {
+
+    private static final int BOARD_SIZE = 8;
+
+    private final String host;
+    private final int port;
+
+    // Engines are built once per config, each with its own hash table that every game starts by clearing
+    private final Map<String, Engine> engines = new HashMap<>();
+    private final Map<String, TranspositionTable> tables = new HashMap<>();
+
+    /**
+     * Creates a worker
+     *
+     * @param host - the coordinator's host
+     * @param port - the coordinator's port
+     */
+    public Worker(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Plays batches until the coordinator is done
+     *
+     * @throws IOException - if the connection fails or the coordinator breaks the protocol
+     */
+    public void run() throws IOException {
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)))) {
+
+            int played = 0;
+            while (true) {
+                out.println("ready");
+                out.flush();
+
+                String header = in.readLine();
+                if (header == null || header.trim().equals("done")) {
+                    break;
+                }
+                String[] words = header.trim().split("\\s+");
+                if (words.length != 3 || !words[0].equals("batch")) {
+                    throw new IOException("expected a batch: " + header);
+                }
+
+                int count = Integer.parseInt(words[2]);
+                String[] records = new String[count];
+                for (int i = 0; i < count; i++) {
+                    String line = in.readLine();
+                    if (line == null) {
+                        throw new IOException("batch " + words[1] + " cut short");
+                    }
+                    records[i] = result(line);
+                }
+
+                out.println("results " + words[1] + " " + count);
+                for (String record : records) {
+                    out.println(record);
+                }
+                played += count;
+            }
+            System.out.println("Worker done, played " + played + " games");
+        }
+    }
+
+    /**
+     * Plays one game of a batch for its result line
+     *
+     * @param line - the "game" line
+     * @return - the record line, or "failed" and the reason if the game can't be played
+     */
+    private String result(String line) {
+        try {
+            return play(line).toLine();
+        } catch (RuntimeException e) {
+            System.out.println("Failed game " + line + ": " + e);
+            return "failed " + e.toString().replaceAll("\\s+", " ");
+        }
+    }
+
+    /**
+     * Plays one game of a batch
+     *
+     * @param line - the "game" line
+     * @return - the finished game
+     * @throws IllegalArgumentException - if the line is not a game, or names an unknown config or invalid move
+     */
+    private GameRecord play(String line) {
+        String[] words = line.trim().split("\\s+");
+        if (words.length != 4 || !words[0].equals("game")) {
+            throw new IllegalArgumentException("expected a game: " + line);
+        }
+
+        int[] opening = GameRecord.parseTranscript(words[1]);
+        Engine black = engine(words[2]);
+        Engine white = engine(words[3]);
+        for (TranspositionTable table : tables.values()) {
+            table.clear();
+        }
+
+        Piece[][] board = Board.newBoard(BOARD_SIZE);
+        Piece player = GameRecord.replay(opening, opening.length, board);
+        int[] moves = new int[Bitboard.SQUARES];
+        System.arraycopy(opening, 0, moves, 0, opening.length);
+        int count = opening.length;
+
+        while (Bitboard.hasMove(Bitboard.fromBoard(board, player),
+                Bitboard.fromBoard(board, Board.getOpposite(player)))) {
+            Move move = (player == Piece.BLACK ? black : white).findBestMove(board, player);
+            Board.applyMove(board, player, move.getRow(), move.getColumn());
+            moves[count++] = move.getRow() * BOARD_SIZE + move.getColumn();
+            player = GameRecord.sideToMove(board, Board.getOpposite(player));
+        }
+
+        int[] transcript = new int[count];
+        System.arraycopy(moves, 0, transcript, 0, count);
+        int score = Bitboard.finalScore(Bitboard.fromBoard(board, Piece.BLACK),
+                Bitboard.fromBoard(board, Piece.WHITE));
+        return new GameRecord(words[2], words[3], opening.length, score, transcript);
+    }
+
+    /**
+     * Gets the engine of a config, building it the first time
+     *
+     * @param config - the config name
+     * @return - the engine
+     */
+    private Engine engine(String config) {
+        Engine engine = engines.get(config);
+        if (engine == null) {
+            TranspositionTable table = new TranspositionTable(ReversiConstants.HASH_TABLE_BITS);
+            engine = EngineConfig.parse(config).createEngine(table);
+            engines.put(config, engine);
+            tables.put(config, table);
+        }
+        return engine;
+    }
+}
@@ -0,0 +1,298 @@
+package server;
+
+import constants.ReversiConstants;
+import game.TranspositionTable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Headless engine server.  Listens on a local TCP port and runs one {@link Session} per connection.
+ * <p>
+ * A single selector thread does all of the socket IO.  Complete lines are queued on their session and the
+ * session's commands are run one after another on a search pool shared by every session, so hundreds of
+ * games only cost one pool thread per core rather than a thread per connection.  The sessions also share
+ * one hash table.
+ */
+public class EngineServer {
+
+    // Longest command line a client may send, one that doesn't end by then is not the protocol
+    private static final int MAX_LINE_LENGTH = 4096;
+
+    private final int port;
+    private final ExecutorService searchPool;
+    private final TranspositionTable table = new TranspositionTable(ReversiConstants.HASH_TABLE_BITS);
+
+    private final Selector selector;
+
+    // Connections with output waiting for the selector thread to register write interest
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a server with a search pool of one thread per core
+     *
+     * @param port - the local port to listen on
+     * @throws IOException - if the selector can't be opened
+     */
+    public EngineServer(int port) throws IOException {
+        this(port, Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "search");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Creates a server
+     *
+     * @param port       - the local port to listen on
+     * @param searchPool - the pool every session runs its commands on
+     * @throws IOException - if the selector can't be opened
+     */
+    public EngineServer(int port, ExecutorService searchPool) throws IOException {
+        this.port = port;
+        this.searchPool = searchPool;
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Accepts connections and does the socket IO until the thread is interrupted
+     *
+     * @throws IOException - if the listening socket fails
+     */
+    public void run() throws IOException {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            System.out.println("Engine server listening on " + server.getLocalAddress());
+            table.persist(Paths.get(ReversiConstants.ANALYSIS_DIRECTORY), "staticEvaluation",
+                    ReversiConstants.SELECTIVITY, ReversiConstants.PERSIST_MIN_DEPTH);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                selector.select();
+
+                // Register write interest for output produced on the search pool
+                Connection pending;
+                while ((pending = pendingWrites.poll()) != null) {
+                    if (pending.key.isValid()) {
+                        pending.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    }
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    try {
+                        if (key.isAcceptable()) {
+                            accept(server);
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            ((Connection) key.attachment()).read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            ((Connection) key.attachment()).write();
+                        }
+                    } catch (IOException e) {
+                        if (key.attachment() != null) {
+                            ((Connection) key.attachment()).close();
+                        } else {
+                            key.cancel();
+                            key.channel().close();
+                        }
+                    }
+                }
+            }
+        } finally {
+            selector.close();
+            searchPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Accepts a new connection and starts a session for it
+     *
+     * @param server - the listening channel
+     * @throws IOException - if the connection can't be registered
+     */
+    private void accept(ServerSocketChannel server) throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+    }
+
+    /**
+     * The IO state of one client.  The read side and the socket belong to the selector thread, the session
+     * and its command queue are drained on the search pool.
+     */
+    private class Connection {
+
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final Session session;
+
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(4096);
+        private final StringBuilder line = new StringBuilder();
+
+        private final Queue<Command> commands = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        private final Queue<ByteBuffer> output = new ConcurrentLinkedQueue<>();
+        private volatile boolean closing = false;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            this.session = new Session(this::send, table);
+        }
+
+        /**
+         * Reads what is available and queues every complete line on the session.  The connection is closed when
+         * the client disconnects or sends a line longer than MAX_LINE_LENGTH.
+         *
+         * @throws IOException - if the read fails
+         */
+        void read() throws IOException {
+            readBuffer.clear();
+            int read = channel.read(readBuffer);
+            if (read < 0) {
+                close();
+                return;
+            }
+
+            readBuffer.flip();
+            while (readBuffer.hasRemaining()) {
+                char c = (char) (readBuffer.get() & 0xff);
+                if (c == '\n') {
+                    commands.add(new Command(line.toString(), System.nanoTime()));
+                    line.setLength(0);
+                } else if (c != '\r') {
+                    if (line.length() >= MAX_LINE_LENGTH) {
+                        close();
+                        return;
+                    }
+                    line.append(c);
+                }
+            }
+
+            schedule();
+        }
+
+        /**
+         * Closes the connection at once, dropping the commands not run yet and stopping the session's search
+         *
+         * @throws IOException - if the channel fails to close
+         */
+        void close() throws IOException {
+            closing = true;
+            commands.clear();
+            session.stop();
+            key.cancel();
+            channel.close();
+        }
+
+        /**
+         * Writes as much queued output as the socket takes, closing the connection once a quit is flushed
+         *
+         * @throws IOException - if the write fails
+         */
+        void write() throws IOException {
+            ByteBuffer buffer;
+            while ((buffer = output.peek()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+                output.poll();
+            }
+
+            key.interestOps(SelectionKey.OP_READ);
+            if (closing) {
+                key.cancel();
+                channel.close();
+            }
+        }
+
+        /**
+         * Queues a line of output and asks the selector thread to flush it
+         *
+         * @param text - the line to send
+         */
+        private void send(String text) {
+            output.add(ByteBuffer.wrap((text + "\n").getBytes(StandardCharsets.US_ASCII)));
+            pendingWrites.add(this);
+            selector.wakeup();
+        }
+
+        /**
+         * Puts the session on the search pool unless it's already there
+         */
+        private void schedule() {
+            if (!commands.isEmpty() && scheduled.compareAndSet(false, true)) {
+                searchPool.execute(this::drain);
+            }
+        }
+
+        /**
+         * Runs the queued commands of the session in order
+         */
+        private void drain() {
+            try {
+                Command command;
+                while (!closing && (command = commands.poll()) != null) {
+                    try {
+                        session.handle(command.line, command.receivedNanos);
+                    } catch (RuntimeException e) {
+                        send("? " + e);
+                    }
+                    if (session.isClosed()) {
+                        closing = true;
+                        pendingWrites.add(this);
+                        selector.wakeup();
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+
+            // A line may have arrived after the queue was seen empty
+            if (!closing) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * A complete line from a client, with when it arrived so the session can charge the time it spent queued
+     */
+    private static class Command {
+
+        private final String line;
+        private final long receivedNanos;
+
+        Command(String line, long receivedNanos) {
+            this.line = line;
+            this.receivedNanos = receivedNanos;
+        }
+    }
+}
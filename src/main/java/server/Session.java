@@ -0,0 +1,329 @@
+package server;
+
+import constants.Piece;
+import constants.ReversiConstants;
+import game.AnalyzedMove;
+import game.Bitboard;
+import game.Board;
+import game.Engine;
+import game.Evaluation;
+import game.Move;
+import game.ProbCut;
+import game.TimeManager;
+import game.TranspositionTable;
+
+import java.util.function.Consumer;
+
+/**
+ * One game driven over the line based text protocol.  The commands follow NBoard where it has one:
+ * <pre>
+ * nboard &lt;version&gt;   handshake, ignored
+ * set depth &lt;n&gt;      maximum search depth for this game
+ * set time &lt;millis&gt;  clock for each side, go spends it with a TimeManager
+ * set myname &lt;x&gt;     ignored
+ * new                 start a new game
+ * move &lt;square&gt;      play a move for the side to move (e.g. move d3)
+ * go                  search and reply with "=== square/score/seconds"
+ * hint &lt;n&gt;            rank every move, the best n exactly, streaming "search pv score 0 depth" lines
+ *                     after each depth and ending with "hint done"; bounded scores are prefixed with &lt;=
+ *                     and scores of a selective (ProbCut) search with ~
+ * ping &lt;n&gt;            reply with "pong n"
+ * board               print the position, side to move and clocks
+ * quit                end the session
+ * </pre>
+ * A session is not thread safe; the server runs the commands of one session one after another.
+ */
+public class Session {
+
+    private static final int BOARD_SIZE = 8;
+
+    // Every session shares the hash table, so they all search with the same selectivity
+    private static final ProbCut PROB_CUT = ProbCut.load("staticEvaluation", ReversiConstants.SELECTIVITY);
+
+    private final Consumer<String> output;
+    private final TranspositionTable table;
+
+    private Piece[][] board;
+    private Piece currentPlayer;
+    private int depth = ReversiConstants.MINIMAX_DEPTH_WHITE_PIECE;
+
+    // Time each side starts a game with, and the time remaining on each side's clock
+    private long timeControlMillis = ReversiConstants.SESSION_CLOCK_MILLIS;
+    private long blackClockMillis;
+    private long whiteClockMillis;
+
+    private boolean closed = false;
+
+    // Set from another thread when nobody is listening any more, ends a running search early
+    private volatile boolean stopped = false;
+
+    /**
+     * Creates a session with a new game
+     *
+     * @param output - receives every line the session writes back
+     * @param table  - hash table shared with the other sessions
+     */
+    public Session(Consumer<String> output, TranspositionTable table) {
+        this.output = output;
+        this.table = table;
+        newGame();
+    }
+
+    /**
+     * Handles one line of the protocol as it arrives
+     *
+     * @param line - the command line, without the line terminator
+     */
+    public void handle(String line) {
+        handle(line, System.nanoTime());
+    }
+
+    /**
+     * Handles one line of the protocol that may have waited to be run.  A go charges the wait to the clock of the
+     * side to move, the client's clock has been running since it sent the command.
+     *
+     * @param line          - the command line, without the line terminator
+     * @param receivedNanos - System.nanoTime() when the line arrived
+     */
+    public void handle(String line, long receivedNanos) {
+        String[] words = line.trim().split("\\s+");
+        if (words[0].isEmpty()) {
+            return;
+        }
+
+        // A failing command is answered like a bad one, the session stays usable
+        try {
+            switch (words[0]) {
+                case "nboard":
+                    break;
+
+                case "set":
+                    set(words);
+                    break;
+
+                case "new":
+                    newGame();
+                    break;
+
+                case "move":
+                    if (words.length < 2) {
+                        error("move needs a square");
+                    } else {
+                        move(words[1]);
+                    }
+                    break;
+
+                case "go":
+                    go(receivedNanos);
+                    break;
+
+                case "hint":
+                    hint(words);
+                    break;
+
+                case "ping":
+                    output.accept("pong" + (words.length > 1 ? " " + words[1] : ""));
+                    break;
+
+                case "board":
+                    printBoard();
+                    break;
+
+                case "quit":
+                    closed = true;
+                    break;
+
+                default:
+                    error("unknown command " + words[0]);
+            }
+        } catch (RuntimeException e) {
+            error(words[0] + " failed: " + e);
+        }
+    }
+
+    /**
+     * Returns true once the client asked to end the session
+     *
+     * @return - true if the session is over
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Ends the session from outside, e.g. when its client disconnects.  Unlike every other method this may be
+     * called from any thread, a search the session is running stops early and its reply is of no use.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Resets the board, the side to move and the clocks
+     */
+    private void newGame() {
+        board = Board.newBoard(BOARD_SIZE);
+        currentPlayer = Piece.BLACK;
+        blackClockMillis = timeControlMillis;
+        whiteClockMillis = timeControlMillis;
+    }
+
+    /**
+     * Handles the set commands
+     *
+     * @param words - the command split on whitespace
+     */
+    private void set(String[] words) {
+        if (words.length < 3) {
+            if (words.length == 2 && words[1].equals("myname")) {
+                return;
+            }
+            error("set needs a name and a value");
+            return;
+        }
+
+        try {
+            switch (words[1]) {
+                case "depth":
+                    depth = Math.max(1, Math.min(ReversiConstants.MAX_SEARCH_DEPTH, Integer.parseInt(words[2])));
+                    break;
+
+                case "time":
+                    long millis = Long.parseLong(words[2]);
+                    if (millis <= 0) {
+                        error("time must be positive: " + words[2]);
+                        return;
+                    }
+                    timeControlMillis = millis;
+                    blackClockMillis = timeControlMillis;
+                    whiteClockMillis = timeControlMillis;
+                    break;
+
+                case "myname":
+                    break;
+
+                default:
+                    error("unknown setting " + words[1]);
+            }
+        } catch (NumberFormatException e) {
+            error("not a number: " + words[2]);
+        }
+    }
+
+    /**
+     * Plays a move for the side to move, passing automatically when the other side has no move
+     *
+     * @param square - the square name
+     */
+    private void move(String square) {
+        int index = Board.parseSquare(square, BOARD_SIZE);
+        if (index < 0) {
+            error("not a square: " + square);
+            return;
+        }
+
+        long moves = Bitboard.validMoves(Bitboard.fromBoard(board, currentPlayer),
+                Bitboard.fromBoard(board, Board.getOpposite(currentPlayer)));
+        if ((moves & 1L << index) == 0) {
+            error("illegal move " + square);
+            return;
+        }
+
+        Board.applyMove(board, currentPlayer, index / BOARD_SIZE, index % BOARD_SIZE);
+        currentPlayer = Board.getOpposite(currentPlayer);
+
+        // Same as the GUI, if the new player can't move the turn goes back
+        if (validMoves(currentPlayer) == 0 && validMoves(Board.getOpposite(currentPlayer)) > 0) {
+            currentPlayer = Board.getOpposite(currentPlayer);
+        }
+    }
+
+    /**
+     * Searches the current position up to the session's depth within the side to move's time plan,
+     * and charges the time used, counted from when the command arrived, to their clock
+     *
+     * @param receivedNanos - System.nanoTime() when the command arrived
+     */
+    private void go(long receivedNanos) {
+        if (validMoves(currentPlayer) == 0) {
+            error("game over");
+            return;
+        }
+
+        // Time spent queued behind other sessions' searches is gone from the clock before the search starts
+        long waited = Math.max(0, (System.nanoTime() - receivedNanos) / 1_000_000);
+        long clockMillis = (currentPlayer.equals(Piece.BLACK) ? blackClockMillis : whiteClockMillis) - waited;
+        TimeManager timeManager = new TimeManager(clockMillis, Board.countPieces(board, Piece.NONE));
+        Engine engine = new Engine(depth, Evaluation::staticEvaluation, table, PROB_CUT);
+        engine.setStopCondition(() -> stopped);
+        Move bestMove = engine.findBestMove(board, currentPlayer, timeManager);
+        long elapsed = waited + timeManager.elapsedMillis();
+
+        if (currentPlayer.equals(Piece.BLACK)) {
+            blackClockMillis -= elapsed;
+        } else {
+            whiteClockMillis -= elapsed;
+        }
+
+        output.accept("=== " + Board.squareName(bestMove.getRow(), bestMove.getColumn()) + "/"
+                + bestMove.getScore() + "/" + (elapsed / 1000.0));
+    }
+
+    /**
+     * Analyzes every move, reporting the ranking after each depth
+     *
+     * @param words - the command split on whitespace
+     */
+    private void hint(String[] words) {
+        int topMoves = 1;
+        if (words.length > 1) {
+            try {
+                topMoves = Math.max(1, Integer.parseInt(words[1]));
+            } catch (NumberFormatException e) {
+                error("not a number: " + words[1]);
+                return;
+            }
+        }
+
+        Engine engine = new Engine(depth, Evaluation::staticEvaluation, table, PROB_CUT);
+        engine.setStopCondition(() -> stopped);
+        engine.analyze(board, currentPlayer, topMoves, (iterationDepth, ranking) -> {
+            for (AnalyzedMove move : ranking) {
+                output.accept("search " + move.getPrincipalVariationText(BOARD_SIZE) + " "
+                        + move.getScoreText() + " 0 " + iterationDepth);
+            }
+        });
+        output.accept("hint done");
+    }
+
+    /**
+     * Writes the position, the side to move and the clocks
+     */
+    private void printBoard() {
+        for (String row : Board.toText(board).split(System.lineSeparator())) {
+            output.accept(row);
+        }
+        output.accept("to move: " + currentPlayer + " black clock: " + blackClockMillis
+                + " white clock: " + whiteClockMillis);
+    }
+
+    /**
+     * Counts the valid moves of a player in the current position
+     *
+     * @param player - the player
+     * @return - the number of valid moves
+     */
+    private int validMoves(Piece player) {
+        return Bitboard.moveCount(Bitboard.fromBoard(board, player),
+                Bitboard.fromBoard(board, Board.getOpposite(player)));
+    }
+
+    /**
+     * Reports a command that could not be handled
+     *
+     * @param message - what went wrong
+     */
+    private void error(String message) {
+        output.accept("? " + message);
+    }
+}
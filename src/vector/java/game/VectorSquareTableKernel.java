@@ -0,0 +1,57 @@
+package game;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Square table kernel on the Vector API, one position per long lane.  Java 17 has no lanewise popcount,
+ * so the pieces on a plane are counted with the usual shift and mask reduction, which needs no 64-bit
+ * multiply.  Loaded by {@link SquareTableKernel#load()}, the JVM must run with
+ * --add-modules jdk.incubator.vector.
+ */
+final class VectorSquareTableKernel implements SquareTableKernel {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.vectorBitSize() / 2));
+
+    @Override
+    public void evaluate(long[] masks, int[] multipliers, long[] own, long[] opponent, int count, int[] scores) {
+        int i = 0;
+        for (; i <= count - LONGS.length(); i += LONGS.length()) {
+            LongVector ownLanes = LongVector.fromArray(LONGS, own, i);
+            LongVector opponentLanes = LongVector.fromArray(LONGS, opponent, i);
+            LongVector sum = LongVector.zero(LONGS);
+            for (int j = 0; j < masks.length; j++) {
+                LongVector difference = bitCount(ownLanes.and(masks[j])).sub(bitCount(opponentLanes.and(masks[j])))
+                        .lanewise(VectorOperators.LSHL, Integer.numberOfTrailingZeros(multipliers[j]));
+                sum = multipliers[j] > 0 ? sum.add(difference) : sum.sub(difference);
+            }
+            ((IntVector) sum.convertShape(VectorOperators.L2I, INTS, 0)).intoArray(scores, i);
+        }
+
+        // The positions left over after the last full vector
+        for (; i < count; i++) {
+            scores[i] = SquareTableKernel.score(masks, multipliers, own[i], opponent[i]);
+        }
+    }
+
+    /**
+     * Counts the set bits of every lane
+     *
+     * @param x - the lanes
+     * @return - the number of set bits of each lane
+     */
+    private static LongVector bitCount(LongVector x) {
+        x = x.sub(x.lanewise(VectorOperators.LSHR, 1).and(0x5555555555555555L));
+        x = x.and(0x3333333333333333L).add(x.lanewise(VectorOperators.LSHR, 2).and(0x3333333333333333L));
+        x = x.add(x.lanewise(VectorOperators.LSHR, 4)).and(0x0f0f0f0f0f0f0f0fL);
+        x = x.add(x.lanewise(VectorOperators.LSHR, 8));
+        x = x.add(x.lanewise(VectorOperators.LSHR, 16));
+        x = x.add(x.lanewise(VectorOperators.LSHR, 32));
+        return x.and(0x7fL);
+    }
+}